@@ -0,0 +1,76 @@
+package com.careerguidance.benchmark;
+
+import com.careerguidance.service.GeminiClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ Response handling of GeminiClient.generate on recorded-shape generateContent envelopes:
+ - textReply: envelope -> text (explain/chat, about 2 KB of text)
+ - jsonReply: envelope -> text -> parsed JSON (a 10-question assessment, about 6 KB of JSON in the text part)
+ - extractOnly: GeminiClient.extractText on an already parsed envelope
+*/
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class GeminiEnvelopeBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private String textEnvelope;
+    private String jsonEnvelope;
+    private JsonNode parsedEnvelope;
+
+    @Setup
+    public void setup() throws Exception {
+        String explanation = ("Recursion is when a function solves a problem by calling itself on a smaller part of it. "
+                + "Every recursive function needs a base case that stops the calls.\n\n").repeat(12);
+        textEnvelope = envelope(explanation);
+
+        ArrayNode questions = mapper.createArrayNode();
+        for (int i = 1; i <= 10; i++) {
+            ObjectNode q = questions.addObject();
+            q.put("question", "Question " + i + ": which statement about recursion and the call stack is correct?");
+            ObjectNode options = q.putObject("options");
+            for (String letter : new String[]{"A", "B", "C", "D"}) {
+                options.put(letter, "Option " + letter + " describing one possible behaviour of the call stack");
+            }
+            q.put("answer", "B");
+        }
+        jsonEnvelope = envelope(mapper.writeValueAsString(questions));
+        parsedEnvelope = mapper.readTree(textEnvelope);
+    }
+
+    private String envelope(String text) throws Exception {
+        ObjectNode root = mapper.createObjectNode();
+        ObjectNode candidate = root.putArray("candidates").addObject();
+        candidate.putObject("content").put("role", "model").putArray("parts").addObject().put("text", text);
+        candidate.put("finishReason", "STOP");
+        root.putObject("usageMetadata").put("promptTokenCount", 120).put("candidatesTokenCount", 640);
+        root.put("modelVersion", "gemini-1.5-flash");
+        return mapper.writeValueAsString(root);
+    }
+
+    @Benchmark
+    public JsonNode textReply() throws Exception {
+        return mapper.createObjectNode().put("text", GeminiClient.extractText(mapper.readTree(textEnvelope)));
+    }
+
+    @Benchmark
+    public JsonNode jsonReply() throws Exception {
+        return mapper.readTree(GeminiClient.extractText(mapper.readTree(jsonEnvelope)));
+    }
+
+    @Benchmark
+    public String extractOnly() {
+        return GeminiClient.extractText(parsedEnvelope);
+    }
+}
@@ -0,0 +1,77 @@
+package com.careerguidance.benchmark;
+
+import com.careerguidance.config.JwtTokenProvider;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/*
+ JWT verification throughput, 4 threads by default (-t to change):
+ - perCallParser: what getSubject used to do (new parser per call, full HMAC + JSON parse)
+ - sharedParser: one reusable parser, no cache (jwt.verification-cache.max-entries=0)
+ - cachedSameToken: the SPA case, the same token over and over
+ - cachedTokenPool: 1,000 distinct live tokens, all fitting in the cache
+*/
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+    private static final int POOL = 1000;
+
+    private Key key;
+    private JwtTokenProvider uncached;
+    private JwtTokenProvider cached;
+    private String token;
+    private String[] tokens;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int i;
+
+        int next() {
+            i = (i + 1) % POOL;
+            return i;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        uncached = new JwtTokenProvider(SECRET, 3_600_000, 0);
+        cached = new JwtTokenProvider(SECRET, 3_600_000, 10_000);
+        token = cached.generateToken("user@example.com");
+        tokens = new String[POOL];
+        for (int i = 0; i < POOL; i++) tokens[i] = cached.generateToken("user" + i + "@example.com");
+    }
+
+    @Benchmark
+    public String perCallParser() {
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String sharedParser() {
+        return uncached.getSubject(token);
+    }
+
+    @Benchmark
+    public String cachedSameToken() {
+        return cached.getSubject(token);
+    }
+
+    @Benchmark
+    public String cachedTokenPool(Cursor cursor) {
+        return cached.getSubject(tokens[cursor.next()]);
+    }
+}
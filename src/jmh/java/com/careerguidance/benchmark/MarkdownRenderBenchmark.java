@@ -0,0 +1,73 @@
+package com.careerguidance.benchmark;
+
+import com.careerguidance.service.MarkdownRenderer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ CommonMark rendering of tutor replies (POST /api/ai/chat and the streaming endpoint):
+ - render: the whole reply at once, as the blocking chat does
+ - incremental: the same reply fed in 24-char deltas through MarkdownRenderer.Incremental, as the stream does
+ Reply sizes are 1, 4 and 16 copies of a ~700-char section with a heading, list, inline code and a fenced block.
+*/
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class MarkdownRenderBenchmark {
+
+    private static final String SECTION = """
+            ## Binary search
+
+            Binary search finds a value in a **sorted** array by halving the range each step, so it takes
+            `O(log n)` comparisons instead of `O(n)`.
+
+            1. Start with `lo = 0` and `hi = n - 1`.
+            2. Compare the middle element with the target.
+            3. Keep the half that can still contain it.
+
+            ```java
+            int lo = 0, hi = a.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] < key) lo = mid + 1; else if (a[mid] > key) hi = mid - 1; else return mid;
+            }
+            ```
+
+            - Watch for overflow in `(lo + hi) / 2`.
+            - Try it on [an example](https://example.com/binary-search) before the quiz.
+
+            """;
+    private static final int DELTA = 24;
+
+    @Param({"1", "4", "16"})
+    public int sections;
+
+    private final MarkdownRenderer renderer = new MarkdownRenderer(new SimpleMeterRegistry());
+    private String reply;
+
+    @Setup
+    public void setup() {
+        reply = SECTION.repeat(sections);
+    }
+
+    @Benchmark
+    public String render() {
+        return renderer.render(reply);
+    }
+
+    @Benchmark
+    public int incremental() {
+        MarkdownRenderer.Incremental stream = renderer.incremental();
+        int html = 0;
+        for (int i = 0; i < reply.length(); i += DELTA) {
+            html += stream.append(reply.substring(i, Math.min(reply.length(), i + DELTA))).length();
+        }
+        return html + stream.finish().length();
+    }
+}
@@ -0,0 +1,58 @@
+package com.careerguidance.benchmark;
+
+import com.careerguidance.model.PathItem;
+import com.careerguidance.service.PathService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Schedule rebuild of POST /api/paths/{id}/regenerate: the AI's [{topic, duration}] array laid out as dated items.
+ - fromTree: PathService.scheduleFrom on an already parsed reply
+ - fromReplyText: the same including parsing the reply JSON, as GeminiClient hands it over
+*/
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ScheduleRebuildBenchmark {
+
+    private static final LocalDate START = LocalDate.of(2025, 6, 1);
+
+    @Param({"10", "50", "200"})
+    public int topics;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private JsonNode schedule;
+    private String replyText;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        ArrayNode array = mapper.createArrayNode();
+        for (int i = 0; i < topics; i++) {
+            array.addObject().put("topic", "Topic " + i + ": concepts, practice and review").put("duration", 1 + random.nextInt(14));
+        }
+        schedule = array;
+        replyText = mapper.writeValueAsString(array);
+    }
+
+    @Benchmark
+    public List<PathItem> fromTree() {
+        return PathService.scheduleFrom(schedule, START);
+    }
+
+    @Benchmark
+    public List<PathItem> fromReplyText() throws Exception {
+        return PathService.scheduleFrom(mapper.readTree(replyText), START);
+    }
+}
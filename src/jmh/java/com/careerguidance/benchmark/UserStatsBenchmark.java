@@ -0,0 +1,80 @@
+package com.careerguidance.benchmark;
+
+import com.careerguidance.model.LearningPath;
+import com.careerguidance.model.PathItem;
+import com.careerguidance.service.UserStatsDelta;
+import com.careerguidance.service.UserStatsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Progress stats for synthetic users of 10 to 5,000 items (paths of 25 items, fixed seed):
+ - fullRebuild: the first-time aggregate built from every item (UserStatsService.aggregate)
+ - itemChange: one item completed, the delta computed on every path/item write; it touches only the changed
+   items, so it should not move with the item count
+ - GET /api/paths/stats is SQL over user_stats and the overdue/streak rows of user_stats_days (UserStatsService.view)
+   and has no in-memory part left to measure here
+*/
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class UserStatsBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+    private static final int ITEMS_PER_PATH = 25;
+
+    @Param({"10", "100", "1000", "5000"})
+    public int items;
+
+    private List<LearningPath> paths;
+    private PathItem before;
+    private PathItem after;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        paths = new ArrayList<>();
+        LearningPath lp = null;
+        for (int i = 0; i < items; i++) {
+            if (i % ITEMS_PER_PATH == 0) {
+                lp = new LearningPath();
+                lp.setPath(new ArrayList<>());
+                paths.add(lp);
+            }
+            PathItem it = new PathItem();
+            it.setTopic("Topic " + i);
+            // end dates spread over the past 90 and next 90 days, about a third completed
+            it.setEndDate(TODAY.plusDays(random.nextInt(180) - 90).toString());
+            it.setStatus(random.nextInt(3) == 0 ? "completed" : "pending");
+            lp.getPath().add(it);
+        }
+
+        before = new PathItem();
+        before.setStatus("pending");
+        before.setEndDate(TODAY.toString());
+        after = new PathItem();
+        after.setStatus("completed");
+        after.setEndDate(TODAY.toString());
+    }
+
+    @Benchmark
+    public UserStatsDelta fullRebuild() {
+        return UserStatsService.aggregate(paths);
+    }
+
+    @Benchmark
+    public UserStatsDelta itemChange() {
+        return new UserStatsDelta()
+                .apply(before.getStatus(), before.getEndDate(), -1)
+                .apply(after.getStatus(), after.getEndDate(), 1);
+    }
+}
@@ -0,0 +1,109 @@
+package com.careerguidance.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/*
+ ApiClient: one virtual user's HTTP calls against the API, each timed into the LatencyRecorder.
+ - call(...) returns the parsed JSON body, or null when the call failed (the failure is recorded)
+ - stream(...) reads an SSE response to the end and records time to the first "token" event as its own endpoint
+*/
+
+public class ApiClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+    private final Duration timeout;
+    private String token;
+
+    public ApiClient(HttpClient http, String baseUrl, LatencyRecorder recorder, Duration timeout) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+        this.timeout = timeout;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    /** label is the route template used for reporting, e.g. "POST /api/paths/{id}/explain". */
+    public JsonNode call(String label, String method, String path, Object body) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> resp = http.send(request(method, path, body, "application/json"), HttpResponse.BodyHandlers.ofByteArray());
+            boolean ok = resp.statusCode() < 400;
+            recorder.record(label, System.nanoTime() - start, ok);
+            if (!ok) return null;
+            return resp.body().length == 0 ? MAPPER.nullNode() : MAPPER.readTree(resp.body());
+        } catch (Exception e) {
+            recorder.record(label, System.nanoTime() - start, false);
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /** Consumes an SSE endpoint; returns the data of the "done" event, or null when the stream failed. */
+    public JsonNode stream(String label, String path, Object body) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> resp = http.send(request("POST", path, body, "text/event-stream"), HttpResponse.BodyHandlers.ofInputStream());
+            if (resp.statusCode() >= 400) {
+                resp.body().close();
+                recorder.record(label, System.nanoTime() - start, false);
+                return null;
+            }
+            String event = null;
+            boolean firstToken = true;
+            JsonNode done = null;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resp.body(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("event:")) {
+                        event = line.substring(6).trim();
+                    } else if (line.startsWith("data:")) {
+                        if ("token".equals(event) && firstToken) {
+                            recorder.record(label + " (first token)", System.nanoTime() - start, true);
+                            firstToken = false;
+                        } else if ("done".equals(event)) {
+                            done = MAPPER.readTree(line.substring(5).trim());
+                        }
+                    }
+                }
+            }
+            recorder.record(label, System.nanoTime() - start, done != null);
+            return done;
+        } catch (Exception e) {
+            recorder.record(label, System.nanoTime() - start, false);
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest request(String method, String path, Object body, String accept) throws Exception {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Accept", accept);
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        if (body == null) {
+            b.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            b.header("Content-Type", "application/json");
+            b.method(method, HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)));
+        }
+        return b.build();
+    }
+}
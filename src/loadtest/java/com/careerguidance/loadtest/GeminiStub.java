@@ -0,0 +1,256 @@
+package com.careerguidance.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ GeminiStub: stands in for generativelanguage.googleapis.com during load tests (JDK HttpServer, virtual threads).
+ - POST /v1beta/models/{model}:generateContent answers with a generateContent envelope
+ - POST /v1beta/models/{model}:streamGenerateContent?alt=sse streams the same reply as SSE chunks
+ - every call waits a latency drawn from the configured Latency (time to the first byte when streaming)
+ - errorRate of the calls fail with errorStatus and a Gemini-style error body
+ - replies are canned per prompt keyword; a JSON file of {"keyword": reply} takes precedence over the defaults
+*/
+
+public class GeminiStub {
+
+    private static final Pattern BULLET = Pattern.compile("^- (.+)$", Pattern.MULTILINE);
+    private static final int WORDS_PER_CHUNK = 4;
+
+    /** Upstream latency model; sample() returns milliseconds. */
+    public interface Latency {
+        long sample(Random random);
+
+        /** "fixed:MS", "uniform:MIN:MAX" or "lognormal:MEDIAN:P99" (milliseconds). */
+        static Latency parse(String spec) {
+            String[] p = spec.split(":");
+            switch (p[0]) {
+                case "fixed":
+                    long ms = Long.parseLong(p[1]);
+                    return r -> ms;
+                case "uniform":
+                    long min = Long.parseLong(p[1]), max = Long.parseLong(p[2]);
+                    return r -> min + (long) (r.nextDouble() * (max - min));
+                case "lognormal":
+                    double median = Double.parseDouble(p[1]), p99 = Double.parseDouble(p[2]);
+                    double mu = Math.log(median), sigma = Math.log(p99 / median) / 2.326;
+                    return r -> Math.round(Math.exp(mu + sigma * r.nextGaussian()));
+                default:
+                    throw new IllegalArgumentException("Unknown latency model: " + spec);
+            }
+        }
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Latency latency;
+    private final long streamChunkMs;
+    private final double errorRate;
+    private final int errorStatus;
+    private final Map<String, String> canned = new LinkedHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong streamCalls = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private HttpServer server;
+
+    public GeminiStub(Latency latency, long streamChunkMs, double errorRate, int errorStatus, Path cannedFile) throws IOException {
+        this.latency = latency;
+        this.streamChunkMs = streamChunkMs;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        if (cannedFile != null) {
+            JsonNode file = mapper.readTree(Files.readString(cannedFile));
+            file.fields().forEachRemaining(e -> canned.put(e.getKey(),
+                    e.getValue().isTextual() ? e.getValue().asText() : e.getValue().toString()));
+        }
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 256);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1beta/models/", this::handle);
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) server.stop(0);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long calls() { return calls.get(); }
+    public long streamCalls() { return streamCalls.get(); }
+    public long injectedErrors() { return injectedErrors.get(); }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            boolean stream = exchange.getRequestURI().getPath().endsWith(":streamGenerateContent");
+            JsonNode body = mapper.readTree(exchange.getRequestBody());
+            String prompt = body.path("contents").path(0).path("parts").path(0).path("text").asText("");
+            boolean json = "application/json".equals(body.path("generationConfig").path("responseMimeType").asText());
+            calls.incrementAndGet();
+            if (stream) streamCalls.incrementAndGet();
+
+            Random random = ThreadLocalRandom.current();
+            sleep(latency.sample(random));
+            if (random.nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                sendError(exchange);
+                return;
+            }
+            String reply = reply(prompt, json);
+            if (stream) sendStream(exchange, reply);
+            else send(exchange, 200, "application/json", mapper.writeValueAsBytes(envelope(reply)));
+        }
+    }
+
+    private void sendError(HttpExchange exchange) throws IOException {
+        ObjectNode root = mapper.createObjectNode();
+        root.putObject("error")
+                .put("code", errorStatus)
+                .put("message", errorStatus == 429 ? "Resource has been exhausted (e.g. check quota)." : "The model is overloaded. Please try again later.")
+                .put("status", errorStatus == 429 ? "RESOURCE_EXHAUSTED" : "UNAVAILABLE");
+        send(exchange, errorStatus, "application/json", mapper.writeValueAsBytes(root));
+    }
+
+    private void sendStream(HttpExchange exchange, String reply) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0); // chunked
+        OutputStream out = exchange.getResponseBody();
+        String[] words = reply.split("(?<= )");
+        for (int i = 0; i < words.length; i += WORDS_PER_CHUNK) {
+            if (i > 0) sleep(streamChunkMs);
+            String delta = String.join("", Arrays.copyOfRange(words, i, Math.min(words.length, i + WORDS_PER_CHUNK)));
+            out.write(("data: " + mapper.writeValueAsString(envelope(delta)) + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private ObjectNode envelope(String text) {
+        ObjectNode root = mapper.createObjectNode();
+        ObjectNode candidate = root.putArray("candidates").addObject();
+        candidate.putObject("content").put("role", "model").putArray("parts").addObject().put("text", text);
+        candidate.put("finishReason", "STOP");
+        root.put("modelVersion", "stub");
+        return root;
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------------- canned replies ----------------
+
+    private String reply(String prompt, boolean json) {
+        for (Map.Entry<String, String> e : canned.entrySet()) {
+            if (prompt.contains(e.getKey())) return e.getValue();
+        }
+        if (prompt.startsWith("You are a helpful study tutor")) return TUTOR_REPLY;
+        if (prompt.contains("running summary")) return "The learner is working through the basics and asked about practice problems.";
+        if (prompt.contains("Create assessments for each")) return assessmentBatch(prompt);
+        if (prompt.contains("multiple-choice questions")) return questions().toString();
+        if (prompt.contains("learning path")) return schedule(8).toString();
+        if (prompt.contains("remaining topics")) return schedule(5).toString();
+        if (prompt.contains("Suggest 3 high-quality resources")) return RESOURCES;
+        if (prompt.contains("Graded result JSON")) return "Solid work on the fundamentals. Review the questions you missed and retake the quiz.";
+        if (prompt.startsWith("Explain")) return EXPLANATION;
+        if (prompt.contains("career analyst")) return SKILL_GAP;
+        if (prompt.contains("interview questions")) return MOCK_INTERVIEW;
+        if (prompt.contains("flashcards")) return FLASHCARDS;
+        if (prompt.contains("coding exercise")) return CODING_EXERCISE;
+        return json ? "{}" : "OK";
+    }
+
+    private ArrayNode schedule(int topics) {
+        ArrayNode array = mapper.createArrayNode();
+        for (int i = 1; i <= topics; i++) array.addObject().put("topic", "Module " + i).put("duration", 1 + i % 4);
+        return array;
+    }
+
+    private ArrayNode questions() {
+        ArrayNode array = mapper.createArrayNode();
+        for (int i = 1; i <= 10; i++) {
+            ObjectNode q = array.addObject();
+            q.put("question", "Question " + i + "?");
+            q.putObject("options").put("A", "First").put("B", "Second").put("C", "Third").put("D", "Fourth");
+            q.put("answer", "A");
+        }
+        return array;
+    }
+
+    private String assessmentBatch(String prompt) {
+        ArrayNode array = mapper.createArrayNode();
+        Matcher m = BULLET.matcher(prompt);
+        while (m.find()) {
+            ObjectNode entry = array.addObject();
+            entry.put("topic", m.group(1).trim());
+            entry.set("questions", questions());
+        }
+        return array.toString();
+    }
+
+    private static final String TUTOR_REPLY = """
+            Good question! Here is a short plan:
+
+            1. Re-read the **core definitions** and write them down in your own words.
+            2. Solve two small exercises, for example:
+
+            ```java
+            int sum(int[] a) { int s = 0; for (int x : a) s += x; return s; }
+            ```
+
+            3. Explain the idea to someone else; gaps show up quickly.
+
+            Want me to suggest a practice problem next?""";
+
+    private static final String EXPLANATION = """
+            This topic is about breaking a problem into small, well-defined steps that a computer can follow.
+
+            Start with the simplest version of the problem and make it work before adding edge cases.
+
+            Practice regularly with short exercises; repetition builds intuition faster than long reading sessions.""";
+
+    private static final String RESOURCES = "[{\"title\":\"Official guide\",\"type\":\"article\",\"url\":\"https://example.com/guide\",\"description\":\"Reference documentation\"},"
+            + "{\"title\":\"Intro course\",\"type\":\"course\",\"url\":\"https://example.com/course\",\"description\":\"Beginner course\"},"
+            + "{\"title\":\"Walkthrough\",\"type\":\"video\",\"url\":\"https://example.com/video\",\"description\":\"Worked examples\"}]";
+
+    private static final String SKILL_GAP = "{\"missingSkills\":[{\"skill\":\"SQL\",\"importance\":\"high\",\"suggestedResources\":[{\"title\":\"SQL basics\",\"url\":\"https://example.com/sql\"}]}],"
+            + "\"recommendedPath\":[{\"topic\":\"SQL\",\"duration\":5},{\"topic\":\"System design\",\"duration\":7}]}";
+
+    private static final String MOCK_INTERVIEW = "[{\"question\":\"Tell me about a project you are proud of.\",\"difficulty\":\"easy\",\"followups\":[\"What would you change?\"]},"
+            + "{\"question\":\"How would you design a URL shortener?\",\"difficulty\":\"medium\",\"followups\":[\"How do you scale reads?\"]}]";
+
+    private static final String FLASHCARDS = "[{\"q\":\"What is a variable?\",\"a\":\"A named storage location.\"},{\"q\":\"What is a loop?\",\"a\":\"Repeated execution of a block.\"}]";
+
+    private static final String CODING_EXERCISE = "{\"title\":\"Two sum\",\"description\":\"Return indices of two numbers adding to target.\","
+            + "\"functionSignature\":\"int[] twoSum(int[] nums, int target)\",\"language\":\"java\",\"testcases\":[{\"input\":\"[2,7,11,15], 9\",\"output\":\"[0,1]\"}]}";
+}
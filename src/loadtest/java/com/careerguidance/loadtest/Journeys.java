@@ -0,0 +1,154 @@
+package com.careerguidance.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.*;
+
+/*
+ Journeys: scripted sessions of one virtual user, in the order the web app issues the calls.
+ - login: a fresh login, as after an expired token (signup and the first login fall in the warmup)
+ - onboarding: generate a path for a domain, save it, open the dashboard
+ - study: open a path, take and submit the assessment of an open topic, ask for an explanation and resources
+ - chat: a three-turn tutor conversation, then the session list
+ - chatStream: one streamed tutor turn (SSE), time to first token recorded separately
+ - assessment: a standalone assessment generated and graded
+ - browse: dashboard and history pages
+ signUp() must run first; the user gets one path there so study has something to work on.
+*/
+
+public class Journeys {
+
+    public static final List<String> NAMES = List.of("login", "onboarding", "study", "chat", "chatStream", "assessment", "browse");
+
+    private final ApiClient api;
+    private final Random random;
+    private final int domains;
+    private final List<Long> pathIds = new ArrayList<>();
+    private Map<String, String> credentials;
+
+    /** domains bounds the distinct domains/topics requested, i.e. how often the AI response cache can hit. */
+    public Journeys(ApiClient api, Random random, int domains) {
+        this.api = api;
+        this.random = random;
+        this.domains = domains;
+    }
+
+    public boolean signUp(String email, String password) {
+        credentials = Map.of("email", email, "password", password);
+        api.call("POST /api/auth/signup", "POST", "/api/auth/signup", credentials);
+        if (!login()) return false;
+        onboarding();
+        return true;
+    }
+
+    private boolean login() {
+        JsonNode login = api.call("POST /api/auth/login", "POST", "/api/auth/login", credentials);
+        if (login == null || !login.hasNonNull("token")) return false;
+        api.setToken(login.get("token").asText());
+        return true;
+    }
+
+    public void run(String journey) {
+        switch (journey) {
+            case "login" -> login();
+            case "onboarding" -> onboarding();
+            case "study" -> study();
+            case "chat" -> chat();
+            case "chatStream" -> chatStream();
+            case "assessment" -> assessment();
+            case "browse" -> browse();
+            default -> throw new IllegalArgumentException("Unknown journey: " + journey);
+        }
+    }
+
+    private String domain() {
+        return "Domain " + random.nextInt(domains);
+    }
+
+    private void onboarding() {
+        String domain = domain();
+        JsonNode generated = api.call("POST /api/ai/generate-path", "POST", "/api/ai/generate-path", Map.of("domain", domain));
+        if (generated == null || !generated.isArray()) return;
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (JsonNode n : generated) items.add(Map.of("topic", n.path("topic").asText(), "duration", n.path("duration").asInt(1)));
+        JsonNode saved = api.call("POST /api/paths", "POST", "/api/paths", Map.of("domain", domain, "path", items));
+        if (saved != null && saved.hasNonNull("id")) pathIds.add(saved.get("id").asLong());
+        api.call("GET /api/paths", "GET", "/api/paths", null);
+        api.call("GET /api/paths/stats", "GET", "/api/paths/stats", null);
+    }
+
+    private void study() {
+        if (pathIds.isEmpty()) {
+            onboarding();
+            return;
+        }
+        long pathId = pathIds.get(random.nextInt(pathIds.size()));
+        JsonNode path = api.call("GET /api/paths/{id}", "GET", "/api/paths/" + pathId, null);
+        if (path == null) return;
+        int topic = firstOpenTopic(path.path("path"));
+        if (topic < 0) {
+            onboarding(); // this path is finished; start another
+            return;
+        }
+
+        JsonNode questions = api.call("POST /api/paths/{id}/assessment", "POST", "/api/paths/" + pathId + "/assessment?topicIndex=" + topic, null);
+        if (questions != null && questions.isArray()) {
+            api.call("POST /api/paths/{id}/assessment/evaluate", "POST",
+                    "/api/paths/" + pathId + "/assessment/evaluate?topicIndex=" + topic, Map.of("answers", answers(questions)));
+        }
+        api.call("POST /api/paths/{id}/explain", "POST", "/api/paths/" + pathId + "/explain?topicIndex=" + topic, null);
+        api.call("POST /api/paths/{id}/resources", "POST", "/api/paths/" + pathId + "/resources?topicIndex=" + topic, null);
+    }
+
+    private static int firstOpenTopic(JsonNode items) {
+        for (int i = 0; i < items.size(); i++) {
+            if (!"completed".equalsIgnoreCase(items.get(i).path("status").asText())) return i;
+        }
+        return -1;
+    }
+
+    // four answers in five right: mostly passing, sometimes failing
+    private List<Map<String, String>> answers(JsonNode questions) {
+        List<Map<String, String>> answers = new ArrayList<>();
+        for (JsonNode q : questions) {
+            String right = q.path("answer").asText("A");
+            answers.add(Map.of("question", q.path("question").asText(), "userAnswer", random.nextInt(5) == 0 ? "D".equals(right) ? "A" : "D" : right));
+        }
+        return answers;
+    }
+
+    private void chat() {
+        Long sessionId = null;
+        for (int turn = 1; turn <= 3; turn++) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("message", Map.of("role", "user", "content", "Turn " + turn + ": how should I practise " + domain() + " this week?"));
+            if (sessionId != null) body.put("sessionId", sessionId);
+            JsonNode reply = api.call("POST /api/ai/chat", "POST", "/api/ai/chat", body);
+            if (reply == null) return;
+            sessionId = reply.path("sessionId").asLong();
+        }
+        api.call("GET /api/ai/sessions", "GET", "/api/ai/sessions", null);
+    }
+
+    private void chatStream() {
+        api.stream("POST /api/ai/chat/stream", "/api/ai/chat/stream",
+                Map.of("message", Map.of("role", "user", "content", "Can you quiz me on " + domain() + "?")));
+    }
+
+    private void assessment() {
+        String topic = "Topic " + random.nextInt(domains);
+        JsonNode generated = api.call("POST /api/ai/generate-assessment", "POST", "/api/ai/generate-assessment", Map.of("topic", topic));
+        if (generated == null) return;
+        api.call("POST /api/ai/evaluate-assessment", "POST", "/api/ai/evaluate-assessment", Map.of(
+                "topic", topic,
+                "assessmentId", generated.path("assessmentId").asLong(),
+                "submissionJson", answers(generated.path("assessment"))));
+    }
+
+    private void browse() {
+        api.call("GET /api/paths", "GET", "/api/paths", null);
+        api.call("GET /api/paths/stats", "GET", "/api/paths/stats", null);
+        api.call("GET /api/history/assessments", "GET", "/api/history/assessments", null);
+        api.call("GET /api/ai/sessions", "GET", "/api/ai/sessions", null);
+    }
+}
@@ -0,0 +1,116 @@
+package com.careerguidance.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ LatencyRecorder: per-endpoint latency samples of one load-test run.
+ - endpoints are labelled by route template ("POST /api/paths/{id}/assessment"), not by concrete URL
+ - nothing is kept until start() so warmup traffic does not skew the percentiles
+ - failures (HTTP >= 400 or I/O errors) are counted separately; percentiles cover successful calls only
+*/
+
+public class LatencyRecorder {
+
+    private final Map<String, Samples> byEndpoint = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private volatile long startedAt;
+    private volatile long stoppedAt;
+
+    public void start() {
+        startedAt = System.nanoTime();
+        recording = true;
+    }
+
+    public void stop() {
+        stoppedAt = System.nanoTime();
+        recording = false;
+    }
+
+    public void record(String endpoint, long nanos, boolean ok) {
+        if (!recording) return;
+        byEndpoint.computeIfAbsent(endpoint, k -> new Samples()).add(nanos, ok);
+    }
+
+    private double seconds() {
+        return (stoppedAt - startedAt) / 1e9;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = seconds();
+        out.printf("%n%-52s %8s %7s %9s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        long total = 0, errors = 0;
+        for (Map.Entry<String, Samples> e : new TreeMap<>(byEndpoint).entrySet()) {
+            Summary s = e.getValue().summary();
+            total += s.count + s.errors;
+            errors += s.errors;
+            out.printf("%-52s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", e.getKey(), s.count, s.errors,
+                    (s.count + s.errors) / seconds, s.p50, s.p95, s.p99, s.max);
+        }
+        out.printf("%-52s %8d %7d %9.1f%n", "total", total - errors, errors, total / seconds);
+        out.printf("measured for %.1f s%n", seconds);
+    }
+
+    public void writeJson(Path file, Map<String, Object> run) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        root.set("run", mapper.valueToTree(run));
+        root.put("seconds", seconds());
+        ArrayNode endpoints = root.putArray("endpoints");
+        for (Map.Entry<String, Samples> e : new TreeMap<>(byEndpoint).entrySet()) {
+            Summary s = e.getValue().summary();
+            endpoints.addObject()
+                    .put("endpoint", e.getKey())
+                    .put("count", s.count)
+                    .put("errors", s.errors)
+                    .put("throughput", (s.count + s.errors) / seconds())
+                    .put("p50Ms", s.p50)
+                    .put("p95Ms", s.p95)
+                    .put("p99Ms", s.p99)
+                    .put("maxMs", s.max);
+        }
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+    }
+
+    private record Summary(int count, int errors, double p50, double p95, double p99, double max) {}
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void add(long value, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (count == nanos.length) nanos = Arrays.copyOf(nanos, count * 2);
+            nanos[count++] = value;
+        }
+
+        synchronized Summary summary() {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return new Summary(count, errors, percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                    count == 0 ? 0 : sorted[count - 1] / 1e6);
+        }
+
+        // nearest-rank percentile in milliseconds
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+}
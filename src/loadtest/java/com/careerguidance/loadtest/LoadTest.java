@@ -0,0 +1,190 @@
+package com.careerguidance.loadtest;
+
+import com.careerguidance.CareerGuidanceApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ LoadTest: offline load test of the API against GeminiStub.
+ - starts the stub, then (unless target is given) the application itself on a random port with an in-memory H2
+   database and ai.gemini.base-url pointing at the stub
+ - users virtual users (virtual threads) sign up, log in and run weighted journeys (see Journeys) back to back
+ - the first warmup seconds are not recorded; then duration seconds are
+ - prints throughput and p50/p95/p99 per endpoint and writes them to report as JSON
+ - for the in-process app also the connection pool's hold and wait times (hikaricp.connections.usage/acquire)
+
+ Options (name=value, a leading "--" is optional):
+   users=20  warmup=10  duration=60  think-ms=0  seed=42  domains=50  timeout-s=120
+   mix=login:1,onboarding:1,study:3,chat:3,chatStream:1,assessment:2,browse:3
+   latency=lognormal:800:4000 (fixed:MS | uniform:MIN:MAX | lognormal:MEDIAN:P99)
+   stream-chunk-ms=40  error-rate=0  error-status=503  canned=replies.json  stub-port=0
+   target=http://host:8080   run against an already started app (point its ai.gemini.base-url at stub-port)
+   report=target/loadtest-report.json
+   app.<property>=value      extra property for the in-process app, e.g. app.ai.upstream.max-concurrent=16
+*/
+
+public class LoadTest {
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : argv) {
+            String a = arg.startsWith("--") ? arg.substring(2) : arg;
+            if (!a.contains("=")) throw new IllegalArgumentException("Expected name=value, got " + arg);
+            String name = a.substring(0, a.indexOf('='));
+            String value = a.substring(a.indexOf('=') + 1);
+            if (name.startsWith("app.")) appArgs.add("--" + name.substring(4) + "=" + value);
+            else args.put(name, value);
+        }
+
+        int users = Integer.parseInt(args.getOrDefault("users", "20"));
+        int warmup = Integer.parseInt(args.getOrDefault("warmup", "10"));
+        int duration = Integer.parseInt(args.getOrDefault("duration", "60"));
+        long thinkMs = Long.parseLong(args.getOrDefault("think-ms", "0"));
+        long seed = Long.parseLong(args.getOrDefault("seed", "42"));
+        int domains = Integer.parseInt(args.getOrDefault("domains", "50"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(args.getOrDefault("timeout-s", "120")));
+        Map<String, Integer> mix = parseMix(args.getOrDefault("mix", "login:1,onboarding:1,study:3,chat:3,chatStream:1,assessment:2,browse:3"));
+
+        GeminiStub stub = new GeminiStub(
+                GeminiStub.Latency.parse(args.getOrDefault("latency", "lognormal:800:4000")),
+                Long.parseLong(args.getOrDefault("stream-chunk-ms", "40")),
+                Double.parseDouble(args.getOrDefault("error-rate", "0")),
+                Integer.parseInt(args.getOrDefault("error-status", "503")),
+                args.containsKey("canned") ? Path.of(args.get("canned")) : null);
+        stub.start(Integer.parseInt(args.getOrDefault("stub-port", "0")));
+        System.out.println("Gemini stub on " + stub.baseUrl());
+
+        ConfigurableApplicationContext app = null;
+        String target = args.get("target");
+        if (target == null) {
+            app = startApp(stub.baseUrl(), appArgs);
+            target = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+        }
+        System.out.println("Target " + target + ", " + users + " users, mix " + mix);
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(warmup + duration).toNanos();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        AtomicInteger failedSignups = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            int user = u;
+            String base = target;
+            threads.add(Thread.ofVirtual().name("vu-" + u).start(() -> {
+                Random random = new Random(seed + user);
+                Journeys journeys = new Journeys(new ApiClient(http, base, recorder, timeout), random, domains);
+                if (!journeys.signUp("load-" + runId + "-" + user + "@example.com", "load-test-" + user)) {
+                    failedSignups.incrementAndGet();
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    journeys.run(pick(mix, random));
+                    if (thinkMs > 0) sleep(thinkMs);
+                }
+            }));
+        }
+
+        sleep(warmup * 1000L);
+        recorder.start();
+        for (Thread t : threads) t.join();
+        recorder.stop();
+
+        recorder.print(System.out);
+        System.out.printf("Gemini stub: %d calls (%d streamed), %d injected errors%n", stub.calls(), stub.streamCalls(), stub.injectedErrors());
+        if (failedSignups.get() > 0) System.out.println(failedSignups.get() + " virtual users could not sign up");
+
+        Map<String, Object> run = new LinkedHashMap<>(args);
+        run.put("users", users);
+        run.put("stubCalls", stub.calls());
+        run.put("stubErrors", stub.injectedErrors());
+        if (app != null) run.put("connectionPool", printPool(app.getBean(MeterRegistry.class)));
+        Path report = Path.of(args.getOrDefault("report", "target/loadtest-report.json"));
+        recorder.writeJson(report, run);
+        System.out.println("Report written to " + report.toAbsolutePath());
+
+        if (app != null) app.close();
+        stub.stop();
+    }
+
+    private static ConfigurableApplicationContext startApp(String stubUrl, List<String> extra) {
+        List<String> props = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--jwt.secret=" + UUID.randomUUID() + UUID.randomUUID(),
+                "--ai.gemini.apiKey=stub",
+                "--ai.gemini.base-url=" + stubUrl,
+                "--management.metrics.distribution.percentiles.hikaricp.connections=0.5,0.95",
+                "--logging.level.root=WARN"));
+        props.addAll(extra); // later arguments win
+        return SpringApplication.run(CareerGuidanceApplication.class, props.toArray(String[]::new));
+    }
+
+    // timers of the whole run, warmup included; max decays, so it covers roughly the last two minutes
+    private static Map<String, Object> printPool(MeterRegistry registry) {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        System.out.printf("%n%-52s %8s %9s %9s %9s %9s%n", "connection pool", "count", "mean ms", "p50 ms", "p95 ms", "max ms");
+        for (String name : List.of("hikaricp.connections.usage", "hikaricp.connections.acquire")) {
+            Timer timer = registry.find(name).timer();
+            if (timer == null) continue;
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", timer.count());
+            stats.put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile v : timer.takeSnapshot().percentileValues()) {
+                stats.put("p" + Math.round(v.percentile() * 100) + "Ms", v.value(TimeUnit.MILLISECONDS));
+            }
+            stats.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+            System.out.printf("%-52s %8d %9.1f %9.1f %9.1f %9.1f%n", name, timer.count(), stats.get("meanMs"),
+                    stats.getOrDefault("p50Ms", Double.NaN), stats.getOrDefault("p95Ms", Double.NaN), stats.get("maxMs"));
+            pool.put(name, stats);
+        }
+        return pool;
+    }
+
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.split(":");
+            if (!Journeys.NAMES.contains(kv[0])) throw new IllegalArgumentException("Unknown journey " + kv[0] + ", expected one of " + Journeys.NAMES);
+            int weight = kv.length > 1 ? Integer.parseInt(kv[1]) : 1;
+            if (weight > 0) mix.put(kv[0], weight);
+        }
+        return mix;
+    }
+
+    private static String pick(Map<String, Integer> mix, Random random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int r = random.nextInt(total);
+        for (Map.Entry<String, Integer> e : mix.entrySet()) {
+            r -= e.getValue();
+            if (r < 0) return e.getKey();
+        }
+        throw new IllegalStateException();
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
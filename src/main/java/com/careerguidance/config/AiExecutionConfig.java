@@ -0,0 +1,61 @@
+package com.careerguidance.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor for AI work that runs off the request thread (streamed chat replies, background generation).
+ * With ai.execution.virtual-threads=true every task gets its own virtual thread, so tasks blocked on
+ * Gemini cost almost nothing; otherwise a fixed pool of platform threads is used.
+ * Upstream concurrency is bounded separately by AiConcurrencyLimiter.
+ * Single upstream attempts (AiCallPolicy) get an executor of their own: they are started from aiExecutor
+ * tasks, which would otherwise wait for a free thread of the pool they are holding.
+ * Scheduling is enabled here for the pollers of the durable AI job queue (AiJobService).
+ */
+@Configuration
+@EnableScheduling
+public class AiExecutionConfig {
+
+    @Bean(name = "aiExecutor")
+    public AsyncTaskExecutor aiExecutor(
+            @Value("${ai.execution.virtual-threads:false}") boolean virtualThreads,
+            @Value("${ai.execution.pool-size:32}") int poolSize,
+            @Value("${ai.execution.queue-capacity:1000}") int queueCapacity
+    ) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ai-vt-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ai-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        return executor;
+    }
+
+    // attempts wait in AiConcurrencyLimiter (up to max-concurrent + max-queue) and are cancelled at the deadline,
+    // so the pool is sized for that rather than bounded by a queue that would reject them
+    @Bean(name = "aiAttemptExecutor")
+    public AsyncTaskExecutor aiAttemptExecutor(
+            @Value("${ai.execution.virtual-threads:false}") boolean virtualThreads,
+            @Value("${ai.execution.attempt-pool-size:128}") int poolSize
+    ) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ai-attempt-vt-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ai-attempt-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        return executor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.careerguidance.config;
+
+import com.careerguidance.service.AiCallPolicy;
+import com.careerguidance.service.AiCircuitBreaker;
+import com.careerguidance.service.AiConcurrencyLimiter;
+import com.careerguidance.service.AiRequestCoalescer;
+import com.careerguidance.service.AiResponseCache;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/*
+ AiStatsEndpoint: actuator endpoint "aistats" with the AI response cache, request coalescing, adaptive upstream
+ limiter, circuit breaker, retry/hedging and outbound HTTP counters (the same numbers MetricsConfig exports).
+ - operator-only: exposed like the Prometheus scrape on the management port (management.server.port), which
+   API users cannot reach; /actuator is not served on the application port
+*/
+
+@Component
+@Endpoint(id = "aistats")
+public class AiStatsEndpoint {
+
+    private final AiResponseCache cache;
+    private final AiRequestCoalescer coalescer;
+    private final AiConcurrencyLimiter limiter;
+    private final AiCircuitBreaker breaker;
+    private final AiCallPolicy callPolicy;
+    private final OutboundHttpMonitor outboundHttp;
+
+    public AiStatsEndpoint(AiResponseCache cache, AiRequestCoalescer coalescer, AiConcurrencyLimiter limiter,
+                           AiCircuitBreaker breaker, AiCallPolicy callPolicy, OutboundHttpMonitor outboundHttp) {
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.limiter = limiter;
+        this.breaker = breaker;
+        this.callPolicy = callPolicy;
+        this.outboundHttp = outboundHttp;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return Map.of(
+                "cache", cache.stats(),
+                "coalescing", coalescer.stats(),
+                "upstream", limiter.stats(),
+                "breaker", breaker.stats(),
+                "retry", callPolicy.stats(),
+                "http", outboundHttp.stats()
+        );
+    }
+}
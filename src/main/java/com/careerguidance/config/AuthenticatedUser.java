@@ -0,0 +1,39 @@
+package com.careerguidance.config;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal set by JwtAuthenticationFilter. Carries the user id so controllers never look the user up again;
+ * use UserService.reference(id) where an entity reference is needed. Holds no password.
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long id;
+    private final String email;
+
+    public AuthenticatedUser(Long id, String email) {
+        this.id = id;
+        this.email = email;
+    }
+
+    public static Long idOf(Authentication auth) {
+        return ((AuthenticatedUser) auth.getPrincipal()).getId();
+    }
+
+    public Long getId() { return id; }
+    public String getEmail() { return email; }
+
+    @Override
+    public String getUsername() { return email; }
+
+    @Override
+    public String getPassword() { return null; }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() { return List.of(); }
+}
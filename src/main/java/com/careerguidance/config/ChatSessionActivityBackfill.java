@@ -0,0 +1,45 @@
+package com.careerguidance.config;
+
+import com.careerguidance.model.ChatSession;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Logger;
+
+/*
+ ChatSessionActivityBackfill: sessions created before lastActivityAt/lastMessagePreview existed have them null.
+ On startup, fills both from each session's latest message (or createdAt when it has none), a batch of sessions
+ per statement so no single transaction touches the whole table. Does nothing once every row is filled.
+*/
+
+@Component
+public class ChatSessionActivityBackfill implements ApplicationRunner {
+
+    private static final Logger LOGGER = Logger.getLogger(ChatSessionActivityBackfill.class.getName());
+    private static final int BATCH = 500;
+
+    private static final String BACKFILL_SQL =
+            "update chat_sessions s set " +
+            "last_activity_at = coalesce((select max(m.created_at) from chat_messages m where m.session_id = s.id), s.created_at), " +
+            "last_message_preview = (select case when char_length(m.content) > " + ChatSession.PREVIEW_LENGTH +
+            " then substring(m.content from 1 for " + ChatSession.PREVIEW_LENGTH + ") || '...' else m.content end " +
+            "from chat_messages m where m.session_id = s.id order by m.created_at desc, m.id desc limit 1) " +
+            "where s.id in (select id from chat_sessions where last_activity_at is null limit " + BATCH + ")";
+
+    private final JdbcTemplate jdbc;
+
+    public ChatSessionActivityBackfill(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int total = 0, updated;
+        while ((updated = jdbc.update(BACKFILL_SQL)) > 0) {
+            total += updated;
+        }
+        if (total > 0) LOGGER.info("Backfilled last activity for " + total + " chat sessions");
+    }
+}
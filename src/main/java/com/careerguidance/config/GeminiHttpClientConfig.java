@@ -0,0 +1,49 @@
+package com.careerguidance.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outbound HTTP client for Gemini: one shared JDK HttpClient (HTTP/2 with multiplexing, falls back to
+ * HTTP/1.1 keep-alive) instead of a new connection per call, with connect/read timeouts so calls can
+ * no longer hang forever.
+ *
+ * The JDK client sizes its HTTP/1.1 keep-alive pool from JVM-wide system properties
+ * (jdk.httpclient.connectionPoolSize, jdk.httpclient.keepalive.timeout), read once when the first
+ * client in the process is created; they are JVM flags, see application.properties.
+ */
+@Configuration
+public class GeminiHttpClientConfig {
+
+    @Bean
+    public HttpClient geminiHttpClient(
+            @Value("${ai.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${ai.http.http2:true}") boolean http2
+    ) {
+        return HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    @Bean
+    public RestTemplate geminiRestTemplate(
+            HttpClient geminiHttpClient,
+            OutboundHttpMonitor monitor,
+            @Value("${ai.http.read-timeout-ms:60000}") long readTimeoutMs
+    ) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(geminiHttpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        RestTemplate rest = new RestTemplate(factory);
+        rest.setInterceptors(List.of(monitor));
+        return rest;
+    }
+}
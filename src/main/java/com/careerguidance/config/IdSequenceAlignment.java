@@ -0,0 +1,59 @@
+package com.careerguidance.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.logging.Logger;
+
+/*
+ IdSequenceAlignment: the history tables used to take their ids from identity columns; they now come from
+ sequences handed out in blocks of ALLOCATION_SIZE (see the entities' @SequenceGenerator). Hibernate creates the
+ sequences starting at 1, so on a database that already has rows each sequence is moved past the table's max(id).
+ Runs once the schema is updated and before the application takes requests or polls jobs (hence not an
+ ApplicationRunner); does nothing when a sequence is already ahead.
+*/
+
+@Component
+public class IdSequenceAlignment implements InitializingBean {
+
+    private static final Logger LOGGER = Logger.getLogger(IdSequenceAlignment.class.getName());
+
+    // allocationSize of the entities' @SequenceGenerator
+    static final int ALLOCATION_SIZE = 50;
+
+    // table -> sequence
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "chat_sessions", "chat_sessions_seq",
+            "chat_messages", "chat_messages_seq",
+            "assessments", "assessments_seq",
+            "flashcard_collections", "flashcard_collections_seq",
+            "mock_interviews", "mock_interviews_seq",
+            "recommendations", "recommendations_seq"
+    );
+
+    private final JdbcTemplate jdbc;
+
+    // the EntityManagerFactory parameter only orders this after Hibernate's schema update
+    public IdSequenceAlignment(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String table, String sequence) {
+        Long maxId = jdbc.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        if (maxId == null || maxId == 0) return;
+        // the block this value opens is (next - ALLOCATION_SIZE, next]; it is thrown away either way
+        Long next = jdbc.queryForObject("select nextval('" + sequence + "')", Long.class);
+        if (next != null && next - ALLOCATION_SIZE >= maxId) return;
+        long restart = maxId + ALLOCATION_SIZE;
+        jdbc.execute("alter sequence " + sequence + " restart with " + restart);
+        LOGGER.info("Moved id sequence " + sequence + " past max(id) " + maxId + " of " + table);
+    }
+}
@@ -37,7 +37,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = bearer.substring(7);
             try {
                 String email = tokenProvider.getSubject(token);
-                var userDetails = userService.loadUserByUsername(email);
+                var userDetails = userService.loadPrincipal(email); // cached; carries the user id
                 var auth = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -4,21 +4,44 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ JwtTokenProvider: issues and verifies HS256 tokens.
+ - one JwtParser is built up front and shared (it is immutable and thread-safe)
+ - verified claims are cached by sha256(token) until the token's exp, so a client resending the same token
+   skips the signature check and JSON parsing; a token is only ever a hit after it verified once
+ - the cache holds at most jwt.verification-cache.max-entries tokens (0 disables it); when full, expired
+   entries are dropped first, then the whole cache
+*/
 
 @Component
 public class JwtTokenProvider {
 
     private final Key key;
     private final long expirationMillis;
+    private final JwtParser parser;
+    private final int cacheMaxEntries;
+    private final ConcurrentHashMap<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    private record VerifiedToken(Claims claims, long expiresAt) {}
 
     public JwtTokenProvider(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration}") long expiration
+            @Value("${jwt.expiration}") long expiration,
+            @Value("${jwt.verification-cache.max-entries:10000}") int cacheMaxEntries
     ) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.expirationMillis = expiration;
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.cacheMaxEntries = cacheMaxEntries;
     }
 
     public String generateToken(String subject) {
@@ -33,7 +56,41 @@ public class JwtTokenProvider {
     }
 
     public String getSubject(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return verify(token).getSubject();
+    }
+
+    /** Verified claims of the token; throws a JwtException when it is malformed, forged or expired. */
+    public Claims verify(String token) {
+        if (cacheMaxEntries <= 0) return parser.parseClaimsJws(token).getBody();
+
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verified.get(digest);
+        if (cached != null) {
+            if (now < cached.expiresAt()) return cached.claims();
+            verified.remove(digest, cached);
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        // tokens without exp are verified every time: nothing bounds how long a cached entry would stay valid
+        if (claims.getExpiration() != null) {
+            if (verified.size() >= cacheMaxEntries) evict(now);
+            verified.put(digest, new VerifiedToken(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    private void evict(long now) {
+        verified.values().removeIf(v -> v.expiresAt() <= now);
+        if (verified.size() >= cacheMaxEntries) verified.clear();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,54 @@
+package com.careerguidance.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.logging.Logger;
+
+/*
+ LegacyPathItemMigration: path items used to be an element collection in "path_items" (no ids, no order column).
+ On startup, copies those rows into "learning_path_items" (numbering them per path in physical order, which is
+ the order the element collection was read in) and renames the old table to "path_items_legacy", so it runs once.
+ Runs once the schema is updated and before the web server starts (hence not an ApplicationRunner), so no request
+ ever reads a path whose items have not been copied yet.
+*/
+
+@Component
+public class LegacyPathItemMigration implements InitializingBean {
+
+    private static final Logger LOGGER = Logger.getLogger(LegacyPathItemMigration.class.getName());
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    // the EntityManagerFactory parameter only orders this after Hibernate's schema update (learning_path_items)
+    public LegacyPathItemMigration(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                                   EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Integer legacy = jdbc.queryForObject(
+                "select count(*) from information_schema.tables where table_schema = current_schema() and table_name = 'path_items'",
+                Integer.class);
+        if (legacy == null || legacy == 0) return;
+
+        // copy and rename commit together (PostgreSQL DDL is transactional), so a failed copy is retried next start
+        Integer copied = tx.execute(status -> {
+            int rows = jdbc.update(
+                    "insert into learning_path_items " +
+                    "(path_id, item_position, topic, duration, start_date, end_date, status, assessment_result, notes) " +
+                    "select path_id, row_number() over (partition by path_id order by ctid) - 1, " +
+                    "topic, duration, start_date, end_date, status, assessment_result, notes from path_items");
+            jdbc.execute("alter table path_items rename to path_items_legacy");
+            return rows;
+        });
+        LOGGER.info("Migrated " + copied + " path items from path_items to learning_path_items");
+    }
+}
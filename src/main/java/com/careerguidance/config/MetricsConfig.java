@@ -0,0 +1,104 @@
+package com.careerguidance.config;
+
+import com.careerguidance.service.AiCircuitBreaker;
+import com.careerguidance.service.AiConcurrencyLimiter;
+import com.careerguidance.service.AiJobService;
+import com.careerguidance.service.AiRequestCoalescer;
+import com.careerguidance.service.AiResponseCache;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Metrics wiring on top of Actuator/Micrometer (scraped from /actuator/prometheus):
+ * http.server.requests gets an "api" tag (ai = the request may wait on Gemini, crud = database only) so
+ * the two kinds of endpoints can have separate SLOs, and the AI cache, coalescer, upstream limiter and
+ * circuit breaker counters behind the "aistats" actuator endpoint are exported as meters, as is the background job queue.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // route templates that call Gemini; everything else under /api is crud
+    private static final Pattern AI_ROUTES = Pattern.compile(
+            "/api/ai/(?!sessions|jobs).*|/api/paths/\\{pathId}/(assessment|explain|resources|regenerate)");
+
+    @Bean
+    public ServerRequestObservationConvention apiTaggingConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                String route = context.getPathPattern();
+                String api = route == null ? "none" : AI_ROUTES.matcher(route).matches() ? "ai" : "crud";
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of("api", api));
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder aiComponentMetrics(AiResponseCache cache, AiRequestCoalescer coalescer, AiConcurrencyLimiter limiter,
+                                          AiCircuitBreaker breaker, AiJobService jobs) {
+        return registry -> {
+            gauge(registry, "ai.cache.size", cache, AiResponseCache::stats, "size");
+            counter(registry, "ai.cache.hits", cache, AiResponseCache::stats, "hits");
+            counter(registry, "ai.cache.misses", cache, AiResponseCache::stats, "misses");
+            counter(registry, "ai.cache.bypasses", cache, AiResponseCache::stats, "bypasses");
+            counter(registry, "ai.cache.evictions", cache, AiResponseCache::stats, "evictions");
+            counter(registry, "ai.cache.expirations", cache, AiResponseCache::stats, "expirations");
+
+            gauge(registry, "ai.coalescing.in.flight", coalescer, AiRequestCoalescer::stats, "inFlight");
+            counter(registry, "ai.coalescing.leaders", coalescer, AiRequestCoalescer::stats, "leaders");
+            counter(registry, "ai.coalescing.coalesced", coalescer, AiRequestCoalescer::stats, "coalesced");
+
+            gauge(registry, "ai.upstream.limit", limiter, AiConcurrencyLimiter::stats, "limit");
+            gauge(registry, "ai.upstream.max.concurrent", limiter, AiConcurrencyLimiter::stats, "maxConcurrent");
+            gauge(registry, "ai.upstream.in.flight", limiter, AiConcurrencyLimiter::stats, "inFlight");
+            gauge(registry, "ai.upstream.waiting", limiter, AiConcurrencyLimiter::stats, "waiting");
+            counter(registry, "ai.upstream.acquired", limiter, AiConcurrencyLimiter::stats, "acquired");
+            counter(registry, "ai.upstream.rejected", limiter, AiConcurrencyLimiter::stats, "rejected");
+            counter(registry, "ai.upstream.limit.decreases", limiter, AiConcurrencyLimiter::stats, "decreases");
+
+            // one series per state, 1 for the current one
+            for (AiCircuitBreaker.State state : AiCircuitBreaker.State.values()) {
+                Gauge.builder("ai.breaker.state", breaker, b -> b.state() == state ? 1 : 0)
+                        .tag("state", state.name().toLowerCase())
+                        .strongReference(true)
+                        .register(registry);
+            }
+            gauge(registry, "ai.breaker.failure.rate", breaker, AiCircuitBreaker::stats, "failureRate");
+            counter(registry, "ai.breaker.opened", breaker, AiCircuitBreaker::stats, "opened");
+            counter(registry, "ai.breaker.rejected", breaker, AiCircuitBreaker::stats, "rejected");
+
+            gauge(registry, "ai.jobs.queue.depth", jobs, AiJobService::stats, "queued");
+            gauge(registry, "ai.jobs.running", jobs, AiJobService::stats, "running");
+            gauge(registry, "ai.jobs.workers", jobs, AiJobService::stats, "workers");
+            gauge(registry, "ai.jobs.dead.lettered", jobs, AiJobService::stats, "deadLettered");
+            counter(registry, "ai.jobs.submitted", jobs, AiJobService::stats, "submitted");
+            counter(registry, "ai.jobs.rejected", jobs, AiJobService::stats, "rejected");
+        };
+    }
+
+    // the component itself is the meter's (strongly held) state object; stats() is read at scrape time
+    private static <T> void gauge(MeterRegistry registry, String name, T component, Function<T, Map<String, Object>> stats, String key) {
+        Gauge.builder(name, component, c -> value(stats.apply(c), key)).strongReference(true).register(registry);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, T component, Function<T, Map<String, Object>> stats, String key) {
+        FunctionCounter.builder(name, component, c -> value(stats.apply(c), key)).register(registry);
+    }
+
+    private static double value(Map<String, Object> stats, String key) {
+        return stats.get(key) instanceof Number n ? n.doubleValue() : Double.NaN;
+    }
+}
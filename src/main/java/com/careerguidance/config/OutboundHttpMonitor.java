@@ -0,0 +1,160 @@
+package com.careerguidance.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interceptor for outbound REST calls: enforces a per-route (scheme://host:port) concurrency limit and
+ * records per-route latency and utilization. A call counts as in flight until its response is closed,
+ * so streamed bodies keep their slot for the whole stream. Each route is also exported as
+ * ai.http.client.* meters tagged with the route.
+ */
+@Component
+public class OutboundHttpMonitor implements ClientHttpRequestInterceptor {
+
+    private final int maxPerRoute;
+    private final long acquireTimeoutMs;
+    private final MeterRegistry registry;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    public OutboundHttpMonitor(@Value("${ai.http.max-per-route:100}") int maxPerRoute,
+                               @Value("${ai.http.acquire-timeout-ms:10000}") long acquireTimeoutMs,
+                               MeterRegistry registry) {
+        this.maxPerRoute = maxPerRoute;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.registry = registry;
+    }
+
+    private final class Route {
+        final Semaphore permits = new Semaphore(maxPerRoute, true);
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+        final Timer duration;
+
+        Route(String name) {
+            duration = Timer.builder("ai.http.client.duration")
+                    .description("Outbound call until its response is closed")
+                    .tag("route", name)
+                    .register(registry);
+            FunctionCounter.builder("ai.http.client.errors", errors, AtomicLong::get).tag("route", name).register(registry);
+            Gauge.builder("ai.http.client.in.flight", permits, p -> maxPerRoute - p.availablePermits()).tag("route", name).register(registry);
+            Gauge.builder("ai.http.client.waiting", permits, Semaphore::getQueueLength).tag("route", name).register(registry);
+        }
+
+        void record(long nanos, boolean error) {
+            calls.incrementAndGet();
+            if (error) errors.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            duration.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        var uri = request.getURI();
+        Route route = routes.computeIfAbsent(uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort(), Route::new);
+        try {
+            if (!route.permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Outbound connection limit reached for " + uri.getHost());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an outbound connection", e);
+        }
+
+        long start = System.nanoTime();
+        try {
+            return new TrackedResponse(execution.execute(request, body), route, start);
+        } catch (IOException | RuntimeException e) {
+            route.record(System.nanoTime() - start, true);
+            route.permits.release();
+            throw e;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        routes.forEach((name, r) -> {
+            long calls = r.calls.get();
+            int inFlight = maxPerRoute - r.permits.availablePermits();
+            out.put(name, Map.of(
+                    "inFlight", inFlight,
+                    "maxPerRoute", maxPerRoute,
+                    "utilization", (double) inFlight / maxPerRoute,
+                    "calls", calls,
+                    "errors", r.errors.get(),
+                    "avgLatencyMs", calls == 0 ? 0.0 : r.totalNanos.get() / 1e6 / calls,
+                    "maxLatencyMs", r.maxNanos.get() / 1e6
+            ));
+        });
+        return out;
+    }
+
+    /** Releases the route slot and records the call once the body has been consumed and closed. */
+    private static final class TrackedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Route route;
+        private final long start;
+        private boolean closed;
+
+        TrackedResponse(ClientHttpResponse delegate, Route route, long start) {
+            this.delegate = delegate;
+            this.route = route;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException { return delegate.getStatusCode(); }
+
+        @Override
+        public String getStatusText() throws IOException { return delegate.getStatusText(); }
+
+        @Override
+        public HttpHeaders getHeaders() { return delegate.getHeaders(); }
+
+        @Override
+        public InputStream getBody() throws IOException { return delegate.getBody(); }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (!closed) {
+                    closed = true;
+                    boolean error;
+                    try {
+                        error = delegate.getStatusCode().isError();
+                    } catch (IOException e) {
+                        error = true;
+                    }
+                    route.record(System.nanoTime() - start, error);
+                    route.permits.release();
+                }
+            }
+        }
+    }
+}
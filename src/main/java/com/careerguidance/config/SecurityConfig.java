@@ -1,6 +1,9 @@
 package com.careerguidance.config;
 
 import com.careerguidance.service.UserService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,10 +23,16 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtFilter;
     private final UserService userService;
+    private final int serverPort;
+    private final int managementPort;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtFilter, UserService userService) {
+    public SecurityConfig(JwtAuthenticationFilter jwtFilter, UserService userService,
+                          @Value("${server.port:8080}") int serverPort,
+                          @Value("${management.server.port:-1}") int managementPort) {
         this.jwtFilter = jwtFilter;
         this.userService = userService;
+        this.serverPort = serverPort;
+        this.managementPort = managementPort;
     }
 
     @Bean
@@ -32,13 +41,22 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // SSE completions re-dispatch an already authorized request
                         .requestMatchers("/api/auth/**").permitAll() // Allow public access to auth endpoints
+                        .requestMatchers(this::onManagementPort).permitAll() // probes, metrics scraper and aistats on actuator's own port
+                        .requestMatchers("/actuator/**").denyAll() // never on the public port, whatever the management config
                         .anyRequest().authenticated() // Require auth for all other endpoints
                 )
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
+    // this chain also guards the management server (management.server.port), which only serves actuator endpoints;
+    // a management port equal to server.port would be the public port, so it never counts as one
+    private boolean onManagementPort(HttpServletRequest request) {
+        return managementPort > 0 && managementPort != serverPort && request.getLocalPort() == managementPort;
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(UserDetailsService uds) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
@@ -1,20 +1,38 @@
 package com.careerguidance.controller;
 
+import com.careerguidance.config.AuthenticatedUser;
+import com.careerguidance.dto.ChatSessionSummary;
+import com.careerguidance.dto.CursorPage;
+import com.careerguidance.exception.AiUnavailableException;
+import com.careerguidance.exception.NotFoundException;
 import com.careerguidance.model.*;
 import com.careerguidance.repository.*;
+import com.careerguidance.service.AiGenerationService;
+import com.careerguidance.service.AiJobService;
 import com.careerguidance.service.AiService;
+import com.careerguidance.service.AssessmentGrader;
+import com.careerguidance.service.AssessmentService;
+import com.careerguidance.service.ChatContextBuilder;
+import com.careerguidance.service.ChatHtmlCache;
+import com.careerguidance.service.ChatService;
+import com.careerguidance.service.HistoryService;
+import com.careerguidance.service.MarkdownRenderer;
 import com.careerguidance.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.commonmark.node.*;
-import org.commonmark.parser.Parser;
-import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.Instant;
+import java.io.IOException;
+import java.net.URI;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -27,12 +45,25 @@ import java.util.stream.Collectors;
  *    appends new user messages only (avoids duplicating existing saved messages). Then it constructs
  *    conversation history from DB and sends that to AI to get a reply. The assistant reply is saved.
  *
- *  - GET /api/ai/sessions: lists chat sessions for the current user (id, title, createdAt, lastPreview).
- *  - GET /api/ai/sessions/{id}: returns session details including ordered messages.
+ *  - POST /api/ai/chat/stream: same as /chat but streams the reply as Server-Sent Events while Gemini generates it.
+ *
+ *  - GET /api/ai/sessions?cursor=&limit=: pages chat sessions for the current user by last activity
+ *    ({ items: [{id, title, createdAt, lastActivityAt, lastPreview}], nextCursor, hasMore }).
+ *    Older messages of a session page through GET /api/history/sessions/{id}/messages.
+ *  - GET /api/ai/sessions/{id}: returns session details including ordered messages; ?html=true adds each message's
+ *    rendered HTML, stored on the message row so it is rendered once per renderer version (ChatHtmlCache).
  *
  *  - PUT /api/ai/sessions/{id}: rename a session (body: { "title": "..." }) — ownership enforced.
  *  - DELETE /api/ai/sessions/{id}: delete session (and messages) — ownership enforced.
  *
+ *  - POST /api/ai/skill-gap, /mock-interview, /flashcards with "async": true answer 202 with a job ({jobId, status, ...})
+ *    instead of waiting for Gemini; GET /api/ai/jobs/{id} polls it, GET /api/ai/jobs/{id}/events (SSE) sends one
+ *    "done" event when it has finished. A finished job's "result" is the body the synchronous call returns.
+ *    Jobs are rows of ai_jobs, so they survive restarts and run on whichever node claims them first.
+ *
+ *  - Cacheable endpoints accept "refresh": true to bypass the cache. Cache, limiter and breaker counters are an
+ *    operator concern: actuator endpoint "aistats" (AiStatsEndpoint) and the ai.* meters, not this API.
+ *
  *  - Methods are transactional where we mutate DB to ensure consistent saves.
  *
  *  This file preserves existing other endpoints and behavior.
@@ -46,38 +77,62 @@ public class AiController {
 
     private final ChatSessionRepository chatSessionRepo;
     private final ChatMessageRepository chatMessageRepo;
-    private final MockInterviewRepository mockInterviewRepo;
-    private final RecommendationRepository recommendationRepo;
-    private final FlashcardRepository flashcardRepo;
     private final AssessmentRepository assessmentRepo;
     private final UserService userService;
-
-    private final Parser mdParser = Parser.builder().build();
-    private final HtmlRenderer htmlRenderer = HtmlRenderer.builder().build();
+    private final ChatService chatService;
+    private final ChatContextBuilder contextBuilder;
+    private final HistoryService historyService;
+    private final AssessmentService assessmentService;
+    private final AssessmentGrader grader;
+    private final MarkdownRenderer markdown;
+    private final ChatHtmlCache htmlCache;
+    private final AiGenerationService generation;
+    private final AiJobService jobs;
+    private final AsyncTaskExecutor aiExecutor;
+
+    @Value("${ai.chat.stream-timeout-ms:120000}")
+    private long streamTimeoutMs;
+
+    @Value("${ai.jobs.subscribe-timeout-ms:300000}")
+    private long jobSubscribeTimeoutMs;
 
     public AiController(AiService ai,
                         ChatSessionRepository chatSessionRepo,
                         ChatMessageRepository chatMessageRepo,
-                        MockInterviewRepository mockInterviewRepo,
-                        RecommendationRepository recommendationRepo,
-                        FlashcardRepository flashcardRepo,
                         AssessmentRepository assessmentRepo,
-                        UserService userService) {
+                        UserService userService,
+                        ChatService chatService,
+                        ChatContextBuilder contextBuilder,
+                        HistoryService historyService,
+                        AssessmentService assessmentService,
+                        AssessmentGrader grader,
+                        MarkdownRenderer markdown,
+                        ChatHtmlCache htmlCache,
+                        AiGenerationService generation,
+                        AiJobService jobs,
+                        @Qualifier("aiExecutor") AsyncTaskExecutor aiExecutor) {
         this.ai = ai;
         this.chatSessionRepo = chatSessionRepo;
         this.chatMessageRepo = chatMessageRepo;
-        this.mockInterviewRepo = mockInterviewRepo;
-        this.recommendationRepo = recommendationRepo;
-        this.flashcardRepo = flashcardRepo;
         this.assessmentRepo = assessmentRepo;
         this.userService = userService;
+        this.chatService = chatService;
+        this.contextBuilder = contextBuilder;
+        this.historyService = historyService;
+        this.assessmentService = assessmentService;
+        this.grader = grader;
+        this.markdown = markdown;
+        this.htmlCache = htmlCache;
+        this.generation = generation;
+        this.jobs = jobs;
+        this.aiExecutor = aiExecutor;
     }
 
     // ---------------- existing endpoints unchanged (generate path etc.) ----------------
 
     @PostMapping("/generate-path")
     public ResponseEntity<JsonNode> generatePath(@RequestBody Map<String, String> body) {
-        return ResponseEntity.ok(ai.generateLearningPath(body.get("domain")));
+        return ResponseEntity.ok(ai.generateLearningPath(body.get("domain"), Boolean.parseBoolean(body.get("refresh"))));
     }
 
     @PostMapping("/generate-assessment")
@@ -86,7 +141,7 @@ public class AiController {
         JsonNode assessment = ai.generateAssessment(topic);
 
         // store generated assessment for the user (un-evaluated)
-        var user = userService.getByEmail(auth.getName());
+        User user = userService.reference(AuthenticatedUser.idOf(auth));
         AssessmentRecord ar = new AssessmentRecord();
         ar.setUser(user);
         ar.setTopic(topic);
@@ -107,33 +162,35 @@ public class AiController {
     }
 
     @PostMapping("/evaluate-assessment")
-    public ResponseEntity<JsonNode> evaluateAssessment(@RequestBody Map<String, Object> body, Authentication auth) {
+    public ResponseEntity<JsonNode> evaluateAssessment(@RequestBody Map<String, Object> body, Authentication auth) throws JsonProcessingException {
         String topic = String.valueOf(body.get("topic"));
-        String submission = String.valueOf(body.get("submissionJson"));
+        Object rawSubmission = body.get("submissionJson");
+        String submission = rawSubmission instanceof String str ? str : mapper.writeValueAsString(rawSubmission);
         Long assessmentId = body.get("assessmentId") == null ? null : Long.valueOf(String.valueOf(body.get("assessmentId")));
+        boolean feedback = Boolean.parseBoolean(String.valueOf(body.get("feedback")));
 
-        JsonNode result = ai.evaluateAssessment(topic, submission);
-
-        // store evaluation result
-        var user = userService.getByEmail(auth.getName());
+        Long userId = AuthenticatedUser.idOf(auth);
         AssessmentRecord ar = new AssessmentRecord();
         if (assessmentId != null) {
-            ar = assessmentRepo.findById(assessmentId).orElse(new AssessmentRecord());
+            ar = assessmentRepo.findByIdForUser(assessmentId, userId)
+                    .orElseThrow(() -> new NotFoundException("Assessment not found"));
         }
+
+        // graded locally against the stored answer key; Gemini only for optional feedback.
+        // A stored assessment is never graded against a correctAnswer sent by the client
+        JsonNode result = assessmentService.grade(topic, ar.getAssessmentJson(), grader.parseSubmission(submission), feedback,
+                assessmentId == null);
+
+        // store evaluation result
+        User user = userService.reference(userId);
         ar.setUser(user);
         ar.setTopic(topic);
         ar.setEvaluationJson(result.toString());
         ar.setQuestionCount(result.path("outOf").asInt(result.path("evaluation").size()));
         int score = result.path("score").asInt(0);
         ar.setScore(score);
-        boolean passed = false;
         // passing criteria: 7/10 => 70%
-        int outOf = ar.getQuestionCount();
-        double pct = outOf == 0 ? 0.0 : (100.0 * score / outOf);
-        if (outOf >= 10) passed = (score >= 7);
-        else passed = (pct >= 70.0);
-
-        ar.setPassed(passed);
+        ar.setPassed(AssessmentGrader.passed(score, ar.getQuestionCount()));
         assessmentRepo.save(ar);
 
         return ResponseEntity.ok(result);
@@ -141,13 +198,13 @@ public class AiController {
 
     @PostMapping("/explain")
     public ResponseEntity<Map<String, String>> explain(@RequestBody Map<String, String> body) {
-        String text = ai.explainTopic(body.get("domain"), body.get("topic"));
+        String text = ai.explainTopic(body.get("domain"), body.get("topic"), Boolean.parseBoolean(body.get("refresh")));
         return ResponseEntity.ok(Map.of("explanation", text));
     }
 
     @PostMapping("/resources")
     public ResponseEntity<JsonNode> resources(@RequestBody Map<String, String> body) {
-        return ResponseEntity.ok(ai.suggestResources(body.get("topic")));
+        return ResponseEntity.ok(ai.suggestResources(body.get("topic"), Boolean.parseBoolean(body.get("refresh"))));
     }
 
     // ---------------- Chat endpoints (UPDATED) ----------------
@@ -163,111 +220,32 @@ public class AiController {
      *
      * Behavior:
      *  - Persist only new user messages (avoid duplicating previously saved messages).
-     *  - Build conversation history from DB (all messages for session ordered by createdAt).
-     *  - Send history to AI, save assistant reply, return sessionId + replyMarkdown + replyHtml.
+     *  - Build the AI context from DB: the session's rolling summary plus the most recent messages that fit
+     *    the token budget (ChatContextBuilder), so prompt size is bounded however long the session gets.
+     *  - Send it to AI, save assistant reply, return sessionId + replyMarkdown + replyHtml.
+     *
+     * Not transactional: the incoming messages and the reply are written in two short transactions (ChatService),
+     * and no database connection is held while waiting for the AI.
      */
     @PostMapping("/chat")
-    @Transactional
     public ResponseEntity<Map<String, Object>> chat(@RequestBody Map<String, Object> body, Authentication auth) {
         // resolve user
-        var user = userService.getByEmail(auth.getName());
-
-        // Accept either "messages" (array) or single "message"
-        @SuppressWarnings("unchecked")
-        List<Map<String, String>> incomingMessages = (List<Map<String, String>>) body.get("messages");
-        if (incomingMessages == null) {
-            incomingMessages = new ArrayList<>();
-            @SuppressWarnings("unchecked")
-            Map<String, String> single = (Map<String, String>) body.get("message");
-            if (single != null) incomingMessages.add(single);
-        }
-
-        Long sessionId = body.get("sessionId") == null ? null : Long.valueOf(String.valueOf(body.get("sessionId")));
-        ChatSession session = null;
-        if (sessionId != null) {
-            session = chatSessionRepo.findById(sessionId).orElse(null);
-        }
-
-        if (session == null) {
-            session = new ChatSession();
-            session.setUser(user);
-            // create title based on first incoming user content if available
-            String title = "Chat - " + Instant.now().toString().substring(0, 10);
-            if (!incomingMessages.isEmpty()) {
-                Optional<String> firstUser = incomingMessages.stream()
-                        .filter(m -> "user".equalsIgnoreCase(m.getOrDefault("role", "user")))
-                        .map(m -> m.getOrDefault("content", ""))
-                        .filter(s -> !s.isBlank())
-                        .findFirst();
-                if (firstUser.isPresent()) {
-                    String t = firstUser.get().trim();
-                    if (t.length() > 40) t = t.substring(0, 40) + "...";
-                    title = t;
-                }
-            }
-            session.setTitle(title);
-            chatSessionRepo.save(session); // persist to get id
-        }
-
-        // Load current saved messages for this session
-        List<ChatMessage> savedMessages = chatMessageRepo.findBySessionIdOrderByCreatedAtAsc(session.getId());
-
-        // Persist only new incoming user messages (avoid duplicates).
-        // Strategy: consider a message new if its content doesn't exactly match the last saved message with same role.
-        for (Map<String, String> m : incomingMessages) {
-            String role = m.getOrDefault("role", "user");
-            String content = m.getOrDefault("content", "");
-            if (content == null || content.isBlank()) continue;
-
-            boolean shouldSave = true;
-            // find last saved message of same role
-            for (int i = savedMessages.size() - 1; i >= 0; i--) {
-                ChatMessage sm = savedMessages.get(i);
-                if (sm.getRole() != null && sm.getRole().equalsIgnoreCase(role)) {
-                    if (sm.getContent() != null && sm.getContent().equals(content)) {
-                        shouldSave = false; // duplicate
-                    }
-                    break;
-                }
-            }
-            if (shouldSave) {
-                ChatMessage cm = new ChatMessage();
-                cm.setRole(role);
-                cm.setContent(content);
-                cm.setSession(session);
-                chatMessageRepo.save(cm);
-                // maintain in-memory list
-                savedMessages.add(cm);
-                session.addMessage(cm);
-            }
-        }
+        User user = userService.reference(AuthenticatedUser.idOf(auth));
 
-        // Build messages list (role/content) to send to AI from DB history (ensures AI sees full context)
-        List<Map<String, String>> historyForAi = savedMessages.stream()
-                .sorted(Comparator.comparing(ChatMessage::getCreatedAt))
-                .map(cm -> Map.of("role", cm.getRole(), "content", cm.getContent()))
-                .collect(Collectors.toList());
+        ChatService.ChatTurn turn = chatService.beginTurn(user, sessionIdFrom(body), incomingMessagesFrom(body));
 
         // Ask AI for a reply
-        String replyMarkdown = ai.chatTutor(historyForAi);
+        String replyMarkdown = ai.chatTutor(turn.summary(), turn.history());
 
-        // Save assistant reply
-        ChatMessage assistantMsg = new ChatMessage();
-        assistantMsg.setRole("assistant");
-        assistantMsg.setContent(replyMarkdown);
-        assistantMsg.setSession(session);
-        chatMessageRepo.save(assistantMsg);
-        session.addMessage(assistantMsg);
-
-        // Save session (update title maybe)
-        chatSessionRepo.save(session);
+        // Render HTML using CommonMark; it is stored with the reply so history reads don't render it again
+        String html = markdown.render(replyMarkdown);
 
-        // Render HTML using CommonMark (for convenience)
-        Node document = mdParser.parse(replyMarkdown == null ? "" : replyMarkdown);
-        String html = htmlRenderer.render(document);
+        // Save assistant reply, then fold overflowing history into the session summary in the background
+        chatService.saveAssistantReply(turn.sessionId(), replyMarkdown, html);
+        contextBuilder.compactAsync(turn.sessionId());
 
         Map<String, Object> resp = new HashMap<>();
-        resp.put("sessionId", session.getId());
+        resp.put("sessionId", turn.sessionId());
         resp.put("replyMarkdown", replyMarkdown);
         resp.put("replyHtml", html);
 
@@ -275,30 +253,107 @@ public class AiController {
     }
 
     /**
-     * List chat sessions for current user (most recent first).
-     * Returns minimal preview fields so UI can render sessions list.
+     * Streaming variant of POST /api/ai/chat (same body shapes), answered as Server-Sent Events:
+     *  - "session": { "sessionId": 12 } as soon as the incoming messages are saved
+     *  - "token":   { "text": "..." } for every delta received from Gemini
+     *  - "html":    { "html": "..." } rendered HTML for each markdown block that has been completed
+     *  - "done":    { "sessionId", "replyMarkdown", "replyHtml" } after the assistant reply has been saved
+     *  - "error":   { "error": "..." } if the upstream call fails
      */
-    @GetMapping("/sessions")
-    @Transactional(readOnly = true)
-    public ResponseEntity<List<Map<String, Object>>> listSessions(Authentication auth) {
-        var user = userService.getByEmail(auth.getName());
-        List<ChatSession> sessions = chatSessionRepo.findByUserIdOrderByCreatedAtDesc(user.getId());
-        List<Map<String, Object>> out = sessions.stream().map(s -> {
-            // try to get last message preview
-            List<ChatMessage> messages = chatMessageRepo.findBySessionIdOrderByCreatedAtAsc(s.getId());
-            String preview = "";
-            if (!messages.isEmpty()) {
-                ChatMessage last = messages.get(messages.size() - 1);
-                String txt = last.getContent() == null ? "" : last.getContent();
-                preview = txt.length() > 120 ? txt.substring(0, 120) + "..." : txt;
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatStream(@RequestBody Map<String, Object> body, Authentication auth) {
+        User user = userService.reference(AuthenticatedUser.idOf(auth));
+        ChatService.ChatTurn turn = chatService.beginTurn(user, sessionIdFrom(body), incomingMessagesFrom(body));
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        aiExecutor.execute(() -> {
+            try {
+                sendEvent(emitter, "session", Map.of("sessionId", turn.sessionId()));
+
+                MarkdownRenderer.Incremental incremental = markdown.incremental();
+                String replyMarkdown = ai.streamChatTutor(turn.summary(), turn.history(), delta -> {
+                    sendEvent(emitter, "token", Map.of("text", delta));
+                    String html = incremental.append(delta);
+                    if (!html.isEmpty()) sendEvent(emitter, "html", Map.of("html", html));
+                });
+                String tail = incremental.finish();
+                if (!tail.isEmpty()) sendEvent(emitter, "html", Map.of("html", tail));
+
+                String replyHtml = markdown.render(replyMarkdown);
+                chatService.saveAssistantReply(turn.sessionId(), replyMarkdown, replyHtml);
+                contextBuilder.compactAsync(turn.sessionId());
+
+                sendEvent(emitter, "done", Map.of(
+                        "sessionId", turn.sessionId(),
+                        "replyMarkdown", replyMarkdown,
+                        "replyHtml", replyHtml
+                ));
+                emitter.complete();
+            } catch (Exception e) {
+                try {
+                    Map<String, Object> error = new HashMap<>();
+                    error.put("error", String.valueOf(e.getMessage()));
+                    if (e instanceof AiUnavailableException u) error.put("retryAfter", u.getRetryAfterSeconds());
+                    emitter.send(SseEmitter.event().name("error").data(error));
+                    emitter.complete();
+                } catch (Exception sendFailed) {
+                    emitter.completeWithError(e);
+                }
             }
-            return Map.<String, Object>of(
-                    "id", s.getId(),
-                    "title", s.getTitle(),
-                    "createdAt", s.getCreatedAt(),
-                    "lastPreview", preview
-            );
+        });
+        return emitter;
+    }
+
+    // A disconnected client must not abort the upstream stream: the reply is still saved to the session.
+    private static void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException ignored) {
+            // client went away; keep consuming
+        }
+    }
+
+    // Accept either "messages" (array) or single "message"
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, String>> incomingMessagesFrom(Map<String, Object> body) {
+        List<Map<String, String>> incomingMessages = (List<Map<String, String>>) body.get("messages");
+        if (incomingMessages == null) {
+            incomingMessages = new ArrayList<>();
+            Map<String, String> single = (Map<String, String>) body.get("message");
+            if (single != null) incomingMessages.add(single);
+        }
+        return incomingMessages;
+    }
+
+    private static Long sessionIdFrom(Map<String, Object> body) {
+        return body.get("sessionId") == null ? null : Long.valueOf(String.valueOf(body.get("sessionId")));
+    }
+
+    /**
+     * List chat sessions for current user, most recently active first, one keyset page at a time
+     * (?cursor= from the previous page's nextCursor). Preview and last activity are stored on the
+     * session row, so this is a single query that never reads message bodies.
+     */
+    @GetMapping("/sessions")
+    public ResponseEntity<Map<String, Object>> listSessions(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int limit,
+                                                            Authentication auth) {
+        User user = userService.reference(AuthenticatedUser.idOf(auth));
+        CursorPage<ChatSessionSummary> page = historyService.sessionsByActivity(user.getId(), cursor, limit);
+        List<Map<String, Object>> items = page.getItems().stream().map(s -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", s.getId());
+            m.put("title", s.getTitle());
+            m.put("createdAt", s.getCreatedAt());
+            m.put("lastActivityAt", s.getLastActivityAt());
+            m.put("lastPreview", s.getLastMessagePreview() == null ? "" : s.getLastMessagePreview());
+            return m;
         }).collect(Collectors.toList());
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("items", items);
+        out.put("nextCursor", page.getNextCursor());
+        out.put("hasMore", page.isHasMore());
         return ResponseEntity.ok(out);
     }
 
@@ -307,19 +362,25 @@ public class AiController {
      */
     @GetMapping("/sessions/{id}")
     @Transactional(readOnly = true)
-    public ResponseEntity<Map<String, Object>> getSession(@PathVariable Long id, Authentication auth) {
-        var user = userService.getByEmail(auth.getName());
+    public ResponseEntity<Map<String, Object>> getSession(@PathVariable Long id,
+                                                          @RequestParam(defaultValue = "false") boolean html,
+                                                          Authentication auth) {
+        User user = userService.reference(AuthenticatedUser.idOf(auth));
         ChatSession session = chatSessionRepo.findById(id).orElseThrow(() -> new RuntimeException("Session not found"));
         if (!session.getUser().getId().equals(user.getId())) {
             return ResponseEntity.status(403).body(Map.of("error", "Not authorized to view this session"));
         }
         List<ChatMessage> messages = chatMessageRepo.findBySessionIdOrderByCreatedAtAsc(session.getId());
-        List<Map<String, Object>> msgs = messages.stream().map(m -> Map.<String, Object>of(
-                "id", m.getId(),
-                "role", m.getRole(),
-                "content", m.getContent(),
-                "createdAt", m.getCreatedAt()
-        )).collect(Collectors.toList());
+        Map<Long, String> rendered = html ? htmlCache.html(messages) : Map.of();
+        List<Map<String, Object>> msgs = messages.stream().map(m -> {
+            Map<String, Object> msg = new LinkedHashMap<>();
+            msg.put("id", m.getId());
+            msg.put("role", m.getRole());
+            msg.put("content", m.getContent());
+            if (html) msg.put("html", rendered.get(m.getId()));
+            msg.put("createdAt", m.getCreatedAt());
+            return msg;
+        }).collect(Collectors.toList());
 
         Map<String, Object> out = new HashMap<>();
         out.put("session", Map.of("id", session.getId(), "title", session.getTitle(), "createdAt", session.getCreatedAt()));
@@ -334,7 +395,7 @@ public class AiController {
     @PutMapping("/sessions/{id}")
     @Transactional
     public ResponseEntity<?> renameSession(@PathVariable Long id, @RequestBody Map<String, String> body, Authentication auth) {
-        var user = userService.getByEmail(auth.getName());
+        User user = userService.reference(AuthenticatedUser.idOf(auth));
         ChatSession session = chatSessionRepo.findById(id).orElseThrow(() -> new RuntimeException("Session not found"));
         if (!session.getUser().getId().equals(user.getId())) {
             return ResponseEntity.status(403).body(Map.of("error", "Not authorized to rename this session"));
@@ -354,7 +415,7 @@ public class AiController {
     @DeleteMapping("/sessions/{id}")
     @Transactional
     public ResponseEntity<?> deleteSession(@PathVariable Long id, Authentication auth) {
-        var user = userService.getByEmail(auth.getName());
+        User user = userService.reference(AuthenticatedUser.idOf(auth));
         ChatSession session = chatSessionRepo.findById(id).orElseThrow(() -> new RuntimeException("Session not found"));
         if (!session.getUser().getId().equals(user.getId())) {
             return ResponseEntity.status(403).body(Map.of("error", "Not authorized to delete this session"));
@@ -367,57 +428,56 @@ public class AiController {
     // ---------------- other endpoints unchanged ----------------
 
     @PostMapping("/skill-gap")
-    public ResponseEntity<Map<String, Object>> skillGap(@RequestBody Map<String,String> body, Authentication auth) {
-        String resumeText = body.getOrDefault("resume", "");
-        String role = body.getOrDefault("targetRole", "Software Engineer");
-        JsonNode res = ai.analyzeSkillGap(resumeText, role);
-
-        var user = userService.getByEmail(auth.getName());
-        Recommendation r = new Recommendation();
-        r.setUser(user);
-        r.setTargetRole(role);
-        r.setContentJson(res.toString());
-        recommendationRepo.save(r);
-
-        return ResponseEntity.ok(Map.of("result", res, "recommendationId", r.getId()));
+    public ResponseEntity<Map<String, Object>> skillGap(@RequestBody Map<String, Object> body, Authentication auth) {
+        Long userId = AuthenticatedUser.idOf(auth);
+        if (isAsync(body)) return accepted(jobs.submit(userId, "skill-gap", body));
+        return ResponseEntity.ok(generation.run("skill-gap", userId, body));
     }
 
     @PostMapping("/mock-interview")
     public ResponseEntity<Map<String, Object>> mockInterview(@RequestBody Map<String, Object> body, Authentication auth) {
-        String role = String.valueOf(body.getOrDefault("role", "Software Engineer"));
-        int rounds = Integer.parseInt(String.valueOf(body.getOrDefault("rounds", "5")));
-        JsonNode res = ai.generateMockInterview(role, rounds);
-
-        var user = userService.getByEmail(auth.getName());
-        MockInterview mi = new MockInterview();
-        mi.setUser(user);
-        mi.setRoleName(role);
-        mi.setContentJson(res.toString());
-        mockInterviewRepo.save(mi);
-
-        return ResponseEntity.ok(Map.of("result", res, "mockInterviewId", mi.getId()));
+        Long userId = AuthenticatedUser.idOf(auth);
+        if (isAsync(body)) return accepted(jobs.submit(userId, "mock-interview", body));
+        return ResponseEntity.ok(generation.run("mock-interview", userId, body));
     }
 
     @PostMapping("/flashcards")
     public ResponseEntity<Map<String,Object>> flashcards(@RequestBody Map<String, Object> body, Authentication auth) {
-        String topic = String.valueOf(body.getOrDefault("topic", ""));
-        int count = Integer.parseInt(String.valueOf(body.getOrDefault("count", "10")));
-        JsonNode res = ai.generateFlashcards(topic, count);
-
-        var user = userService.getByEmail(auth.getName());
-        FlashcardCollection fc = new FlashcardCollection();
-        fc.setUser(user);
-        fc.setTopic(topic);
-        fc.setTitle("Flashcards: " + topic);
-        fc.setContentJson(res.toString());
-        flashcardRepo.save(fc);
-
-        return ResponseEntity.ok(Map.of("result", res, "flashcardCollectionId", fc.getId()));
+        Long userId = AuthenticatedUser.idOf(auth);
+        if (isAsync(body)) return accepted(jobs.submit(userId, "flashcards", body));
+        return ResponseEntity.ok(generation.run("flashcards", userId, body));
+    }
+
+    private static boolean isAsync(Map<String, Object> body) {
+        return Boolean.parseBoolean(String.valueOf(body.get("async")));
+    }
+
+    private ResponseEntity<Map<String, Object>> accepted(AiJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/ai/jobs/" + job.getId()))
+                .body(jobs.view(job));
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<Map<String, Object>> job(@PathVariable String id, Authentication auth) {
+        return ResponseEntity.ok(jobs.view(jobs.find(AuthenticatedUser.idOf(auth), id)));
+    }
+
+    /** One "done" event with the job (as GET /api/ai/jobs/{id}) once it has succeeded or failed. */
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter jobEvents(@PathVariable String id, Authentication auth) {
+        AiJob job = jobs.find(AuthenticatedUser.idOf(auth), id);
+        SseEmitter emitter = new SseEmitter(jobSubscribeTimeoutMs);
+        jobs.subscribe(job, finished -> {
+            sendEvent(emitter, "done", jobs.view(finished));
+            emitter.complete();
+        });
+        return emitter;
     }
 
     @PostMapping("/coding-exercise")
     public ResponseEntity<JsonNode> codingExercise(@RequestBody Map<String, String> body) {
         String topic = body.getOrDefault("topic", "");
-        return ResponseEntity.ok(ai.generateCodingExercise(topic));
+        return ResponseEntity.ok(ai.generateCodingExercise(topic, Boolean.parseBoolean(body.get("refresh"))));
     }
 }
@@ -4,6 +4,7 @@ import com.careerguidance.config.JwtTokenProvider;
 import com.careerguidance.dto.*;
 import com.careerguidance.model.User;
 import com.careerguidance.repository.UserRepository;
+import com.careerguidance.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -15,11 +16,13 @@ public class AuthController {
 
     private final UserRepository userRepo;
     private final JwtTokenProvider jwt;
+    private final UserService userService;
     private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
 
-    public AuthController(UserRepository userRepo, JwtTokenProvider jwt) {
+    public AuthController(UserRepository userRepo, JwtTokenProvider jwt, UserService userService) {
         this.userRepo = userRepo;
         this.jwt = jwt;
+        this.userService = userService;
     }
 
     @PostMapping("/signup")
@@ -31,6 +34,7 @@ public class AuthController {
         u.setEmail(req.getEmail());
         u.setPassword(encoder.encode(req.getPassword()));
         userRepo.save(u);
+        userService.evictPrincipal(u.getEmail()); // drop any principal cached for an earlier account with this email
         return ResponseEntity.ok().body(new AuthResponse("User registered"));
     }
 
@@ -0,0 +1,69 @@
+package com.careerguidance.controller;
+
+import com.careerguidance.config.AuthenticatedUser;
+import com.careerguidance.dto.AssessmentSummary;
+import com.careerguidance.dto.ChatSessionSummary;
+import com.careerguidance.dto.CursorPage;
+import com.careerguidance.service.HistoryService;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Cursor-paginated history of the current user, newest first.
+ * Every endpoint takes ?limit= (1-100, default 20) and ?cursor= (the nextCursor of the previous page)
+ * and returns { items, nextCursor, hasMore }.
+ */
+@RestController
+@RequestMapping("/api/history")
+public class HistoryController {
+
+    private final HistoryService historyService;
+
+    public HistoryController(HistoryService historyService) {
+        this.historyService = historyService;
+    }
+
+    private Long currentUserId(Authentication auth) {
+        return AuthenticatedUser.idOf(auth);
+    }
+
+    @GetMapping("/assessments")
+    public CursorPage<AssessmentSummary> assessments(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "20") int limit, Authentication auth) {
+        return historyService.assessments(currentUserId(auth), cursor, limit);
+    }
+
+    @GetMapping("/flashcards")
+    public CursorPage<Map<String, Object>> flashcards(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "20") int limit, Authentication auth) {
+        return historyService.flashcards(currentUserId(auth), cursor, limit);
+    }
+
+    @GetMapping("/mock-interviews")
+    public CursorPage<Map<String, Object>> mockInterviews(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int limit, Authentication auth) {
+        return historyService.mockInterviews(currentUserId(auth), cursor, limit);
+    }
+
+    @GetMapping("/recommendations")
+    public CursorPage<Map<String, Object>> recommendations(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "20") int limit, Authentication auth) {
+        return historyService.recommendations(currentUserId(auth), cursor, limit);
+    }
+
+    @GetMapping("/sessions")
+    public CursorPage<ChatSessionSummary> sessions(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "20") int limit, Authentication auth) {
+        return historyService.sessions(currentUserId(auth), cursor, limit);
+    }
+
+    @GetMapping("/sessions/{sessionId}/messages")
+    public CursorPage<Map<String, Object>> messages(@PathVariable Long sessionId,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int limit,
+                                                    @RequestParam(defaultValue = "false") boolean html, Authentication auth) {
+        return historyService.messages(currentUserId(auth), sessionId, cursor, limit, html);
+    }
+}
@@ -1,14 +1,16 @@
 package com.careerguidance.controller;
 
+import com.careerguidance.config.AuthenticatedUser;
 import com.careerguidance.dto.*;
 import com.careerguidance.model.LearningPath;
 import com.careerguidance.model.PathItem;
-import com.careerguidance.model.User;
 import com.careerguidance.service.AiService;
+import com.careerguidance.service.AssessmentGrader;
+import com.careerguidance.service.AssessmentService;
 import com.careerguidance.service.PathService;
-import com.careerguidance.service.UserService;
 import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,24 +25,30 @@ import java.util.stream.Collectors;
 public class PathController {
 
     private final PathService pathService;
-    private final UserService userService;
     private final AiService ai;
+    private final AssessmentService assessmentService;
 
-    public PathController(PathService pathService, UserService userService, AiService ai) {
+    public PathController(PathService pathService, AiService ai, AssessmentService assessmentService) {
         this.pathService = pathService;
-        this.userService = userService;
         this.ai = ai;
+        this.assessmentService = assessmentService;
     }
 
     private Long currentUserId(Authentication auth) {
-        User u = userService.getByEmail(auth.getName());
-        return u.getId();
+        return AuthenticatedUser.idOf(auth);
     }
 
+    // summaries only (counts + next item); the full items with results and notes come from GET /{pathId}
     @GetMapping
     @Transactional(readOnly = true)
-    public List<LearningPath> list(Authentication auth) {
-        return pathService.listForUser(currentUserId(auth));
+    public List<PathSummary> list(Authentication auth) {
+        return pathService.listSummariesForUser(currentUserId(auth));
+    }
+
+    // progress dashboard: totals, pending/overdue, streak (totals row plus the per-day counts of overdue and streak days)
+    @GetMapping("/stats")
+    public Map<String, Object> stats(Authentication auth) {
+        return pathService.computeUserStats(currentUserId(auth));
     }
 
     @GetMapping("/{pathId}")
@@ -64,7 +72,10 @@ public class PathController {
                     "duration", node.path("duration").asInt(1)
             )));
         }
-        return pathService.createPath(currentUserId(auth), req.getDomain(), items);
+        LearningPath lp = pathService.createPath(currentUserId(auth), req.getDomain(), items);
+        // pre-generate assessments for all topics so opening one later is a DB read
+        assessmentService.scheduleForPath(lp);
+        return lp;
     }
 
     @PutMapping("/{pathId}")
@@ -77,14 +88,14 @@ public class PathController {
     @PostMapping("/{pathId}/assessment")
     public ResponseEntity<JsonNode> generateAssessment(@PathVariable Long pathId, @RequestParam int topicIndex, Authentication auth) {
         LearningPath lp = pathService.getByIdForUser(pathId, currentUserId(auth));
-        String topic = lp.getPath().get(topicIndex).getTopic();
-        return ResponseEntity.ok(ai.generateAssessment(topic));
+        return ResponseEntity.ok(assessmentService.assessmentFor(lp, topicIndex));
     }
 
     @PostMapping("/{pathId}/assessment/evaluate")
     public LearningPath evaluateAssessment(
             @PathVariable Long pathId,
             @RequestParam int topicIndex,
+            @RequestParam(defaultValue = "false") boolean feedback,
             @RequestBody AssessmentSubmission submission,
             Authentication auth) {
 
@@ -92,24 +103,17 @@ public class PathController {
         PathItem item = lp.getPath().get(topicIndex);
 
         try {
-            String submissionJson = new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(submission.getAnswers());
-            var result = ai.evaluateAssessment(item.getTopic(), submissionJson);
+            // graded locally against the stored answer key
+            List<AssessmentSubmission.Answer> answers = submission.getAnswers() == null ? List.of() : submission.getAnswers();
+            var result = assessmentService.evaluateForPath(lp, topicIndex, answers, feedback);
 
             int score = result.path("score").asInt(0);
             int outOf = result.path("outOf").asInt(10);
-            double percentage = outOf == 0 ? 0 : (100.0 * score / outOf);
 
-            // Save assessment record
-            // Note: requires AssessmentRepository - autowire it in controller if needed
             item.setAssessmentResult(result.toString());
 
             // Passing criteria: 7 correct out of 10 (or >=70% if different count)
-            boolean passed;
-            if (outOf >= 10) {
-                passed = score >= 7;
-            } else {
-                passed = percentage >= 70.0;
-            }
+            boolean passed = AssessmentGrader.passed(score, outOf);
 
             if (passed) {
                 item.setStatus("completed");
@@ -123,22 +127,26 @@ public class PathController {
             }
 
             return pathService.updatePath(pathId, currentUserId(auth), lp.getPath());
+        } catch (OptimisticLockingFailureException e) {
+            throw e; // concurrent change of the path: 409, the client retries
         } catch (Exception e) {
             throw new RuntimeException("Evaluation failed: " + e.getMessage());
         }
     }
 
     @PostMapping("/{pathId}/explain")
-    public ResponseEntity<Map<String, String>> explain(@PathVariable Long pathId, @RequestParam int topicIndex, Authentication auth) {
+    public ResponseEntity<Map<String, String>> explain(@PathVariable Long pathId, @RequestParam int topicIndex,
+                                                       @RequestParam(defaultValue = "false") boolean refresh, Authentication auth) {
         LearningPath lp = pathService.getByIdForUser(pathId, currentUserId(auth));
-        String text = ai.explainTopic(lp.getDomain(), lp.getPath().get(topicIndex).getTopic());
+        String text = ai.explainTopic(lp.getDomain(), lp.getPath().get(topicIndex).getTopic(), refresh);
         return ResponseEntity.ok(Map.of("explanation", text));
     }
 
     @PostMapping("/{pathId}/resources")
-    public ResponseEntity<JsonNode> suggestResources(@PathVariable Long pathId, @RequestParam int topicIndex, Authentication auth) {
+    public ResponseEntity<JsonNode> suggestResources(@PathVariable Long pathId, @RequestParam int topicIndex,
+                                                     @RequestParam(defaultValue = "false") boolean refresh, Authentication auth) {
         LearningPath lp = pathService.getByIdForUser(pathId, currentUserId(auth));
-        return ResponseEntity.ok(ai.suggestResources(lp.getPath().get(topicIndex).getTopic()));
+        return ResponseEntity.ok(ai.suggestResources(lp.getPath().get(topicIndex).getTopic(), refresh));
     }
 
     @PostMapping("/{pathId}/regenerate")
@@ -164,28 +172,13 @@ public class PathController {
         var regen = ai.regenerateSchedule(remainingTopics);
 
         // Rebuild dates from today
-        List<PathItem> newRemaining = new ArrayList<>();
-        java.time.LocalDate start = LocalDate.now();
-        for (var node : regen) {
-            String topic = node.path("topic").asText();
-            int duration = node.path("duration").asInt(1);
-            var end = start.plusDays(duration);
-
-            PathItem pi = new PathItem();
-            pi.setTopic(topic);
-            pi.setDuration(duration);
-            pi.setStartDate(start.toString());
-            pi.setEndDate(end.toString());
-            pi.setStatus("pending");
-            pi.setAssessmentResult(null);
-            newRemaining.add(pi);
-
-            start = end;
-        }
+        List<PathItem> newRemaining = PathService.scheduleFrom(regen, LocalDate.now());
 
         List<PathItem> merged = new ArrayList<>(completed);
         merged.addAll(newRemaining);
-        return pathService.updatePath(pathId, currentUserId(auth), merged);
+        LearningPath updated = pathService.updatePath(pathId, currentUserId(auth), merged);
+        assessmentService.scheduleForPath(updated);
+        return updated;
     }
 
     @PutMapping("/{pathId}/items/{index}/notes")
@@ -198,4 +191,15 @@ public class PathController {
         String notes = body.getOrDefault("notes", "");
         return pathService.updateItemNotes(pathId, currentUserId(auth), index, notes);
     }
+
+    // item-level partial update (status, notes, dates, ...) that writes only this item's row
+    @PatchMapping("/{pathId}/items/{itemId}")
+    public PathItem patchItem(
+            @PathVariable Long pathId,
+            @PathVariable Long itemId,
+            @RequestBody Map<String, Object> body,
+            Authentication auth
+    ) {
+        return pathService.patchItem(pathId, currentUserId(auth), itemId, body);
+    }
 }
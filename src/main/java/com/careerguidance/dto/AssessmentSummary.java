@@ -0,0 +1,16 @@
+package com.careerguidance.dto;
+
+import java.time.Instant;
+
+// Interface projection for assessment history: scores only, not the question/evaluation JSON
+public interface AssessmentSummary {
+    Long getId();
+    String getTopic();
+    String getLearningPathId();
+    Integer getTopicIndex();
+    int getQuestionCount();
+    int getScore();
+    boolean isPassed();
+    boolean isEvaluated();
+    Instant getCreatedAt();
+}
@@ -0,0 +1,12 @@
+package com.careerguidance.dto;
+
+import java.time.Instant;
+
+// Interface projection for the session list: only the session row, never message bodies
+public interface ChatSessionSummary {
+    Long getId();
+    String getTitle();
+    Instant getCreatedAt();
+    Instant getLastActivityAt();
+    String getLastMessagePreview();
+}
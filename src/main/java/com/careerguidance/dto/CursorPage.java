@@ -0,0 +1,24 @@
+package com.careerguidance.dto;
+
+import java.util.List;
+
+// One keyset page: pass nextCursor back as ?cursor= to get the following (older) page
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor; // null on the last page
+    private boolean hasMore;
+
+    public CursorPage() {}
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+    public void setItems(List<T> items) { this.items = items; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
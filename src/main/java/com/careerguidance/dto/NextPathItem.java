@@ -0,0 +1,14 @@
+package com.careerguidance.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// Interface projection of the next open item of a path (no assessmentResult/notes)
+public interface NextPathItem {
+    @JsonIgnore
+    Long getPathId();
+    Long getId();
+    int getPosition();
+    String getTopic();
+    String getEndDate();
+    String getStatus();
+}
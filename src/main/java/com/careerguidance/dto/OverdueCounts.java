@@ -0,0 +1,19 @@
+package com.careerguidance.dto;
+
+// Open items past their end date, by days late (1-7, 8-30, more); built by a JPQL constructor expression
+public class OverdueCounts {
+    private final long upTo7Days;
+    private final long upTo30Days;
+    private final long older;
+
+    public OverdueCounts(Long upTo7Days, Long upTo30Days, Long older) {
+        this.upTo7Days = upTo7Days == null ? 0 : upTo7Days;
+        this.upTo30Days = upTo30Days == null ? 0 : upTo30Days;
+        this.older = older == null ? 0 : older;
+    }
+
+    public long getUpTo7Days() { return upTo7Days; }
+    public long getUpTo30Days() { return upTo30Days; }
+    public long getOlder() { return older; }
+    public long getTotal() { return upTo7Days + upTo30Days + older; }
+}
@@ -0,0 +1,42 @@
+package com.careerguidance.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position (timestamp, id) of the last row of a page, newest-first order. Sent to clients as an opaque
+ * base64url token; the next page is every row strictly older than it, so a page costs the same at any depth.
+ */
+public final class PageCursor {
+
+    // "before everything": the first page is the keyset query from a position past any stored row
+    public static final PageCursor START = new PageCursor(Instant.parse("9999-12-31T00:00:00Z"), Long.MAX_VALUE);
+
+    private final Instant timestamp;
+    private final long id;
+
+    public PageCursor(Instant timestamp, long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) return START;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new PageCursor(Instant.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant getTimestamp() { return timestamp; }
+    public long getId() { return id; }
+}
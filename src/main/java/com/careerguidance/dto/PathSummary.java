@@ -0,0 +1,36 @@
+package com.careerguidance.dto;
+
+import java.util.Date;
+
+// Row of GET /api/paths: built by a JPQL constructor expression, so no item (or LOB) columns are loaded
+public class PathSummary {
+    private Long id;
+    private String domain;
+    private Date createdAt;
+    private long totalItems;
+    private long completedItems;
+    private NextPathItem nextItem; // first not-completed item by position, null when all are done
+
+    public PathSummary() {}
+    public PathSummary(Long id, String domain, Date createdAt, Long totalItems, Long completedItems) {
+        this.id = id;
+        this.domain = domain;
+        this.createdAt = createdAt;
+        this.totalItems = totalItems == null ? 0 : totalItems;
+        this.completedItems = completedItems == null ? 0 : completedItems;
+    }
+
+    public Long getId() { return id; }
+    public String getDomain() { return domain; }
+    public Date getCreatedAt() { return createdAt; }
+    public long getTotalItems() { return totalItems; }
+    public long getCompletedItems() { return completedItems; }
+    public double getProgress() { return totalItems == 0 ? 0 : (completedItems * 100.0 / totalItems); }
+    public NextPathItem getNextItem() { return nextItem; }
+    public void setId(Long id) { this.id = id; }
+    public void setDomain(String domain) { this.domain = domain; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+    public void setTotalItems(long totalItems) { this.totalItems = totalItems; }
+    public void setCompletedItems(long completedItems) { this.completedItems = completedItems; }
+    public void setNextItem(NextPathItem nextItem) { this.nextItem = nextItem; }
+}
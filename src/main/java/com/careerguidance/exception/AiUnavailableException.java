@@ -0,0 +1,19 @@
+package com.careerguidance.exception;
+
+/** AI calls are being shed (upstream overloaded or circuit open); answered as 503 with Retry-After. */
+public class AiUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AiUnavailableException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public AiUnavailableException(String msg, long retryAfterSeconds, Throwable cause) {
+        super(msg, cause);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
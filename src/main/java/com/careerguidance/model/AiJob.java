@@ -0,0 +1,98 @@
+package com.careerguidance.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A background AI generation, stored so that any node can run it and a restart does not lose it.
+ * QUEUED rows become claimable at runAfter; a claimed row is RUNNING until leaseUntil, after which another
+ * worker may take it over (the first one is presumed dead) - or, if that was the last attempt, dead-letter it.
+ * FAILED rows are the dead letters: attempts used up.
+ */
+@Entity
+@Table(name = "ai_jobs", indexes = {
+        @Index(name = "idx_ai_jobs_status_run_after", columnList = "status, run_after"),
+        @Index(name = "idx_ai_jobs_status_finished", columnList = "status, finished_at")
+})
+public class AiJob {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    private Long userId;
+
+    @Column(length = 32)
+    private String type;
+
+    @Lob
+    @Column(columnDefinition = "text")
+    private String paramsJson; // request body the job was submitted with
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Status status = Status.QUEUED;
+
+    private int attempts; // claims so far, including one that is running
+    private int maxAttempts;
+
+    private Instant runAfter;   // QUEUED: not claimed before this (retry backoff)
+    private Instant leaseUntil; // RUNNING: claim expires, extended while the worker is alive
+    private String lockedBy;    // worker node of the current claim
+
+    @Lob
+    @Column(columnDefinition = "text")
+    private String resultJson; // response body once SUCCEEDED
+
+    @Column(length = 1000)
+    private String lastError; // for operators (logs, database); clients only see errorCode
+
+    @Column(length = 32)
+    private String errorCode; // stable code of the last failure, see AiJobQueue
+
+    private Long retryAfter; // seconds, when the last failure was an AI overload
+
+    private Instant createdAt = Instant.now();
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    // getters/setters
+    public String getId() { return id; }
+    public Long getUserId() { return userId; }
+    public String getType() { return type; }
+    public String getParamsJson() { return paramsJson; }
+    public Status getStatus() { return status; }
+    public int getAttempts() { return attempts; }
+    public int getMaxAttempts() { return maxAttempts; }
+    public Instant getRunAfter() { return runAfter; }
+    public Instant getLeaseUntil() { return leaseUntil; }
+    public String getLockedBy() { return lockedBy; }
+    public String getResultJson() { return resultJson; }
+    public String getLastError() { return lastError; }
+    public String getErrorCode() { return errorCode; }
+    public Long getRetryAfter() { return retryAfter; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setId(String id) { this.id = id; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public void setType(String type) { this.type = type; }
+    public void setParamsJson(String paramsJson) { this.paramsJson = paramsJson; }
+    public void setStatus(Status status) { this.status = status; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+    public void setRunAfter(Instant runAfter) { this.runAfter = runAfter; }
+    public void setLeaseUntil(Instant leaseUntil) { this.leaseUntil = leaseUntil; }
+    public void setLockedBy(String lockedBy) { this.lockedBy = lockedBy; }
+    public void setResultJson(String resultJson) { this.resultJson = resultJson; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public void setErrorCode(String errorCode) { this.errorCode = errorCode; }
+    public void setRetryAfter(Long retryAfter) { this.retryAfter = retryAfter; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public boolean isFinished() { return status == Status.SUCCEEDED || status == Status.FAILED; }
+}
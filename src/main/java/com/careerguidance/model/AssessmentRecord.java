@@ -4,9 +4,12 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "assessments")
+@Table(name = "assessments",
+        indexes = @Index(name = "idx_assessments_user_created", columnList = "user_id, created_at, id"))
 public class AssessmentRecord {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ids from a pooled sequence (50 per round trip) so inserts can be JDBC-batched; see IdSequenceAlignment
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assessments_seq")
+    @SequenceGenerator(name = "assessments_seq", sequenceName = "assessments_seq", allocationSize = 50)
     private Long id;
 
     private String topic;
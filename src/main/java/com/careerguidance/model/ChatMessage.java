@@ -4,9 +4,12 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages",
+        indexes = @Index(name = "idx_chat_messages_session_created", columnList = "session_id, created_at, id"))
 public class ChatMessage {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ids from a pooled sequence (50 per round trip) so inserts can be JDBC-batched; see IdSequenceAlignment
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_messages_seq")
+    @SequenceGenerator(name = "chat_messages_seq", sequenceName = "chat_messages_seq", allocationSize = 50)
     private Long id;
 
     private String role; // "user" | "assistant" | "system"
@@ -14,6 +17,13 @@ public class ChatMessage {
     @Column(columnDefinition = "text")
     private String content; // raw markdown preserved
 
+    @Lob
+    @Column(columnDefinition = "text")
+    private String contentHtml; // content rendered by MarkdownRenderer, filled lazily (ChatHtmlCache)
+
+    @Column(length = 64)
+    private String htmlRendererVersion; // MarkdownRenderer.VERSION that produced contentHtml
+
     private Instant createdAt = Instant.now();
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -24,11 +34,15 @@ public class ChatMessage {
     public Long getId() { return id; }
     public String getRole() { return role; }
     public String getContent() { return content; }
+    public String getContentHtml() { return contentHtml; }
+    public String getHtmlRendererVersion() { return htmlRendererVersion; }
     public Instant getCreatedAt() { return createdAt; }
     public ChatSession getSession() { return session; }
     public void setId(Long id) { this.id = id; }
     public void setRole(String role) { this.role = role; }
     public void setContent(String content) { this.content = content; }
+    public void setContentHtml(String contentHtml) { this.contentHtml = contentHtml; }
+    public void setHtmlRendererVersion(String htmlRendererVersion) { this.htmlRendererVersion = htmlRendererVersion; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public void setSession(ChatSession session) { this.session = session; }
 }
@@ -1,15 +1,25 @@
 package com.careerguidance.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "chat_sessions")
+@Table(name = "chat_sessions",
+        indexes = {
+                @Index(name = "idx_chat_sessions_user_activity", columnList = "user_id, last_activity_at, id"),
+                @Index(name = "idx_chat_sessions_user_created", columnList = "user_id, created_at, id")
+        })
+@DynamicUpdate // turn updates (activity/preview) and summary compaction write disjoint columns
 public class ChatSession {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public static final int PREVIEW_LENGTH = 120;
+
+    // ids from a pooled sequence (50 per round trip) so inserts can be JDBC-batched; see IdSequenceAlignment
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_sessions_seq")
+    @SequenceGenerator(name = "chat_sessions_seq", sequenceName = "chat_sessions_seq", allocationSize = 50)
     private Long id;
 
     private String title; // optional friendly title
@@ -20,6 +30,20 @@ public class ChatSession {
 
     private Instant createdAt = Instant.now();
 
+    // denormalized from the latest message so the session list needs no message reads
+    private Instant lastActivityAt = createdAt;
+
+    @Column(length = PREVIEW_LENGTH + 3)
+    private String lastMessagePreview;
+
+    // rolling summary of every message up to and including (summarizedThroughAt, summarizedThroughId)
+    @Lob
+    @Column(columnDefinition = "text")
+    private String summary;
+
+    private Instant summarizedThroughAt;
+    private Long summarizedThroughId;
+
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ChatMessage> messages = new ArrayList<>();
 
@@ -29,14 +53,31 @@ public class ChatSession {
     public User getUser() { return user; }
     public Instant getCreatedAt() { return createdAt; }
     public List<ChatMessage> getMessages() { return messages; }
+    public Instant getLastActivityAt() { return lastActivityAt; }
+    public String getLastMessagePreview() { return lastMessagePreview; }
+    public String getSummary() { return summary; }
+    public Instant getSummarizedThroughAt() { return summarizedThroughAt; }
+    public Long getSummarizedThroughId() { return summarizedThroughId; }
     public void setId(Long id) { this.id = id; }
     public void setTitle(String title) { this.title = title; }
     public void setUser(User user) { this.user = user; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public void setMessages(List<ChatMessage> messages) { this.messages = messages; }
+    public void setLastActivityAt(Instant lastActivityAt) { this.lastActivityAt = lastActivityAt; }
+    public void setLastMessagePreview(String lastMessagePreview) { this.lastMessagePreview = lastMessagePreview; }
+    public void setSummary(String summary) { this.summary = summary; }
+    public void setSummarizedThroughAt(Instant summarizedThroughAt) { this.summarizedThroughAt = summarizedThroughAt; }
+    public void setSummarizedThroughId(Long summarizedThroughId) { this.summarizedThroughId = summarizedThroughId; }
 
     public void addMessage(ChatMessage m) {
         messages.add(m);
         m.setSession(this);
+        lastActivityAt = m.getCreatedAt();
+        lastMessagePreview = preview(m.getContent());
+    }
+
+    public static String preview(String content) {
+        String txt = content == null ? "" : content;
+        return txt.length() > PREVIEW_LENGTH ? txt.substring(0, PREVIEW_LENGTH) + "..." : txt;
     }
 }
@@ -4,9 +4,12 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "flashcard_collections")
+@Table(name = "flashcard_collections",
+        indexes = @Index(name = "idx_flashcards_user_created", columnList = "user_id, created_at, id"))
 public class FlashcardCollection {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ids from a pooled sequence (50 per round trip) so inserts can be JDBC-batched; see IdSequenceAlignment
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flashcard_collections_seq")
+    @SequenceGenerator(name = "flashcard_collections_seq", sequenceName = "flashcard_collections_seq", allocationSize = 50)
     private Long id;
 
     private String topic;
@@ -13,8 +13,8 @@ public class LearningPath {
 
     private String domain;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "path_items", joinColumns = @JoinColumn(name = "path_id"))
+    @OneToMany(mappedBy = "learningPath", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("position ASC")
     private List<PathItem> path = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -25,15 +25,53 @@ public class LearningPath {
     @Temporal(TemporalType.TIMESTAMP)
     private Date createdAt = new Date();
 
+    // forced up by every item change (PathService): a change computed from item states that another request has
+    // changed meanwhile fails instead of applying its stats delta twice
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private long version;
+
+    // item states as loaded/last saved, used to compute stats deltas on update
+    @Transient
+    @JsonIgnore
+    private List<PathItem> itemsSnapshot;
+
     // getters & setters
     public Long getId() { return id; }
     public String getDomain() { return domain; }
     public List<PathItem> getPath() { return path; }
     public User getUser() { return user; }
     public Date getCreatedAt() { return createdAt; }
+    public long getVersion() { return version; }
+    public List<PathItem> getItemsSnapshot() { return itemsSnapshot; }
     public void setId(Long id) { this.id = id; }
     public void setDomain(String domain) { this.domain = domain; }
-    public void setPath(List<PathItem> path) { this.path = path; }
     public void setUser(User user) { this.user = user; }
     public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+    public void setItemsSnapshot(List<PathItem> itemsSnapshot) { this.itemsSnapshot = itemsSnapshot; }
+
+    /**
+     * Makes the item list equal to {@code items}, in that order, keeping row identity: items carrying the id of
+     * one of this path's items update that row in place (only changed columns are written), items without an id
+     * (or with a foreign one) become new rows, and items no longer listed are deleted.
+     */
+    public void setPath(List<PathItem> items) {
+        Map<Long, PathItem> current = new HashMap<>();
+        for (PathItem it : path) {
+            if (it.getId() != null) current.put(it.getId(), it);
+        }
+        List<PathItem> merged = new ArrayList<>(items.size());
+        for (PathItem in : items) {
+            PathItem target = in.getId() == null ? in : current.remove(in.getId());
+            if (target == null) target = new PathItem(); // id of another path's item: insert a copy
+            if (target != in) target.copyFrom(in);
+            target.setLearningPath(this);
+            target.setPosition(merged.size());
+            merged.add(target);
+        }
+        // mutate the managed collection in place; orphanRemoval deletes the rows left out
+        path.clear();
+        path.addAll(merged);
+    }
 }
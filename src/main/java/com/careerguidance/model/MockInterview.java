@@ -4,9 +4,12 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "mock_interviews")
+@Table(name = "mock_interviews",
+        indexes = @Index(name = "idx_mock_interviews_user_created", columnList = "user_id, created_at, id"))
 public class MockInterview {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ids from a pooled sequence (50 per round trip) so inserts can be JDBC-batched; see IdSequenceAlignment
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mock_interviews_seq")
+    @SequenceGenerator(name = "mock_interviews_seq", sequenceName = "mock_interviews_seq", allocationSize = 50)
     private Long id;
 
     private String roleName;
@@ -1,9 +1,27 @@
 package com.careerguidance.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
-@Embeddable
+// One row per item with a stable id; @DynamicUpdate so a status change doesn't rewrite the TEXT columns
+@Entity
+@Table(name = "learning_path_items",
+        indexes = @Index(name = "idx_path_items_path_position", columnList = "path_id, item_position"))
+@DynamicUpdate
 public class PathItem {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "path_id", nullable = false)
+    @JsonIgnore
+    private LearningPath learningPath;
+
+    @Column(name = "item_position")
+    private int position;           // 0-based index within the path
+
     private String topic;
     private int duration;           // days
     private String startDate;       // ISO yyyy-MM-dd
@@ -18,7 +36,21 @@ public class PathItem {
     @Column(columnDefinition = "text")
     private String notes;// raw JSON string
 
+    /** Copies the editable fields (not id, path or position) from another item. */
+    public void copyFrom(PathItem other) {
+        this.topic = other.topic;
+        this.duration = other.duration;
+        this.startDate = other.startDate;
+        this.endDate = other.endDate;
+        this.status = other.status;
+        this.assessmentResult = other.assessmentResult;
+        this.notes = other.notes;
+    }
+
     // getters & setters
+    public Long getId() { return id; }
+    public LearningPath getLearningPath() { return learningPath; }
+    public int getPosition() { return position; }
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
     public String getTopic() { return topic; }
@@ -27,6 +59,9 @@ public class PathItem {
     public String getEndDate() { return endDate; }
     public String getStatus() { return status; }
     public String getAssessmentResult() { return assessmentResult; }
+    public void setId(Long id) { this.id = id; }
+    public void setLearningPath(LearningPath learningPath) { this.learningPath = learningPath; }
+    public void setPosition(int position) { this.position = position; }
     public void setTopic(String topic) { this.topic = topic; }
     public void setDuration(int duration) { this.duration = duration; }
     public void setStartDate(String startDate) { this.startDate = startDate; }
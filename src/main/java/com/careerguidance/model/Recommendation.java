@@ -4,9 +4,12 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "recommendations")
+@Table(name = "recommendations",
+        indexes = @Index(name = "idx_recommendations_user_created", columnList = "user_id, created_at, id"))
 public class Recommendation {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ids from a pooled sequence (50 per round trip) so inserts can be JDBC-batched; see IdSequenceAlignment
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recommendations_seq")
+    @SequenceGenerator(name = "recommendations_seq", sequenceName = "recommendations_seq", allocationSize = 50)
     private Long id;
 
     private String targetRole;
@@ -0,0 +1,45 @@
+package com.careerguidance.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Per-user learning progress totals, maintained incrementally as path items change. Counts per end date
+ * (pending/overdue, streak) live in user_stats_days, so reading the stats never touches the whole history.
+ */
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+
+    @Id
+    private Long userId;
+
+    private int totalItems;
+    private int completedItems;
+
+    // null on rows written before open items were counted here: UserStatsService rebuilds those once
+    private Integer openItems;
+
+    private String lastActivityDay; // ISO yyyy-MM-dd of the last completion
+
+    private Instant updatedAt = Instant.now();
+
+    public UserStats() {}
+
+    public UserStats(Long userId) { this.userId = userId; }
+
+    // getters/setters
+    public Long getUserId() { return userId; }
+    public int getTotalItems() { return totalItems; }
+    public int getCompletedItems() { return completedItems; }
+    public Integer getOpenItems() { return openItems; }
+    public String getLastActivityDay() { return lastActivityDay; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public void setTotalItems(int totalItems) { this.totalItems = totalItems; }
+    public void setCompletedItems(int completedItems) { this.completedItems = completedItems; }
+    public void setOpenItems(Integer openItems) { this.openItems = openItems; }
+    public void setLastActivityDay(String lastActivityDay) { this.lastActivityDay = lastActivityDay; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,66 @@
+package com.careerguidance.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One user's item counts for one end date: open (not completed) items for pending/overdue and completed ones for
+ * the streak. Maintained with += SQL by UserStatsService; a row is deleted once both counts are back to zero.
+ */
+@Entity
+@Table(name = "user_stats_days")
+@IdClass(UserStatsDay.Key.class)
+public class UserStatsDay {
+
+    @Id
+    private Long userId;
+
+    @Id
+    private String endDate; // ISO yyyy-MM-dd, so string order is date order
+
+    private int openItems;
+    private int completedItems;
+
+    public UserStatsDay() {}
+
+    public UserStatsDay(Long userId, String endDate, int openItems, int completedItems) {
+        this.userId = userId;
+        this.endDate = endDate;
+        this.openItems = openItems;
+        this.completedItems = completedItems;
+    }
+
+    // getters/setters
+    public Long getUserId() { return userId; }
+    public String getEndDate() { return endDate; }
+    public int getOpenItems() { return openItems; }
+    public int getCompletedItems() { return completedItems; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public void setEndDate(String endDate) { this.endDate = endDate; }
+    public void setOpenItems(int openItems) { this.openItems = openItems; }
+    public void setCompletedItems(int completedItems) { this.completedItems = completedItems; }
+
+    public static class Key implements Serializable {
+        private Long userId;
+        private String endDate;
+
+        public Key() {}
+
+        public Key(Long userId, String endDate) {
+            this.userId = userId;
+            this.endDate = endDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(userId, k.userId) && Objects.equals(endDate, k.endDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, endDate);
+        }
+    }
+}
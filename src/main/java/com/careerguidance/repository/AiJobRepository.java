@@ -0,0 +1,41 @@
+package com.careerguidance.repository;
+
+import com.careerguidance.model.AiJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AiJobRepository extends JpaRepository<AiJob, String> {
+
+    // due QUEUED rows and RUNNING rows whose claim expired; SKIP LOCKED lets pollers on every node claim
+    // concurrently without waiting on, or double-claiming, each other's rows
+    @Query(value = "select * from ai_jobs where (status = 'QUEUED' and run_after <= :now) " +
+            "or (status = 'RUNNING' and lease_until < :now) " +
+            "order by run_after limit :limit for update skip locked", nativeQuery = true)
+    List<AiJob> findClaimable(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select j from AiJob j where j.id = :id")
+    Optional<AiJob> findForUpdate(@Param("id") String id);
+
+    List<AiJob> findByIdIn(Collection<String> ids);
+
+    long countByStatus(AiJob.Status status);
+
+    @Modifying
+    @Query("update AiJob j set j.leaseUntil = :until where j.id in :ids and j.lockedBy = :worker and j.status = :status")
+    int extendLeases(@Param("ids") Collection<String> ids, @Param("worker") String worker,
+                     @Param("status") AiJob.Status status, @Param("until") Instant until);
+
+    @Modifying
+    @Query("delete from AiJob j where j.status = :status and j.finishedAt < :cutoff")
+    int deleteFinishedBefore(@Param("status") AiJob.Status status, @Param("cutoff") Instant cutoff);
+}
@@ -1,10 +1,33 @@
 package com.careerguidance.repository;
 
+import com.careerguidance.dto.AssessmentSummary;
 import com.careerguidance.model.AssessmentRecord;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface AssessmentRepository extends JpaRepository<AssessmentRecord, Long> {
-    List<AssessmentRecord> findByUserIdOrderByCreatedAtDesc(Long userId);
+    // keyset page, newest first, rows strictly older than (beforeTime, beforeId); see PageCursor
+    @Query("select a.id as id, a.topic as topic, a.learningPathId as learningPathId, a.topicIndex as topicIndex, " +
+            "a.questionCount as questionCount, a.score as score, a.passed as passed, " +
+            "case when a.evaluationJson is null then false else true end as evaluated, a.createdAt as createdAt " +
+            "from AssessmentRecord a where a.user.id = :userId " +
+            "and (a.createdAt < :beforeTime or (a.createdAt = :beforeTime and a.id < :beforeId)) " +
+            "order by a.createdAt desc, a.id desc")
+    List<AssessmentSummary> findPageByUserId(@Param("userId") Long userId, @Param("beforeTime") Instant beforeTime,
+            @Param("beforeId") long beforeId, Limit limit);
+
+    @Query("select a from AssessmentRecord a where a.id = :id and a.user.id = :userId")
+    Optional<AssessmentRecord> findByIdForUser(@Param("id") Long id, @Param("userId") Long userId);
+
+    // latest generated (not yet evaluated) assessment for a path topic
+    Optional<AssessmentRecord> findFirstByLearningPathIdAndTopicAndEvaluationJsonIsNullOrderByCreatedAtDesc(String learningPathId, String topic);
+
+    @Query("select a.topic from AssessmentRecord a where a.learningPathId = :learningPathId and a.evaluationJson is null")
+    List<String> findPendingTopicsByLearningPathId(@Param("learningPathId") String learningPathId);
 }
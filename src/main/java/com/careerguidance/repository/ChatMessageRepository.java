@@ -1,10 +1,40 @@
 package com.careerguidance.repository;
 
 import com.careerguidance.model.ChatMessage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     List<ChatMessage> findBySessionIdOrderByCreatedAtAsc(Long sessionId);
+
+    // keyset page of one session's messages, newest first (idx_chat_messages_session_created)
+    @Query("select m from ChatMessage m where m.session.id = :sessionId " +
+            "and (m.createdAt < :beforeTime or (m.createdAt = :beforeTime and m.id < :beforeId)) " +
+            "order by m.createdAt desc, m.id desc")
+    List<ChatMessage> findPageBySessionId(@Param("sessionId") Long sessionId, @Param("beforeTime") Instant beforeTime,
+            @Param("beforeId") long beforeId, Limit limit);
+
+    // messages after (afterTime, afterId), newest first: the not-yet-summarized tail of a session
+    @Query("select m from ChatMessage m where m.session.id = :sessionId " +
+            "and (m.createdAt > :afterTime or (m.createdAt = :afterTime and m.id > :afterId)) " +
+            "order by m.createdAt desc, m.id desc")
+    List<ChatMessage> findRecentAfter(@Param("sessionId") Long sessionId, @Param("afterTime") Instant afterTime,
+            @Param("afterId") long afterId, Limit limit);
+
+    // messages after (afterTime, afterId), oldest first: the next batch to fold into the summary
+    @Query("select m from ChatMessage m where m.session.id = :sessionId " +
+            "and (m.createdAt > :afterTime or (m.createdAt = :afterTime and m.id > :afterId)) " +
+            "order by m.createdAt asc, m.id asc")
+    List<ChatMessage> findOldestAfter(@Param("sessionId") Long sessionId, @Param("afterTime") Instant afterTime,
+            @Param("afterId") long afterId, Limit limit);
+
+    @Modifying
+    @Query("update ChatMessage m set m.contentHtml = :html, m.htmlRendererVersion = :version where m.id = :id")
+    int updateHtml(@Param("id") Long id, @Param("html") String html, @Param("version") String version);
 }
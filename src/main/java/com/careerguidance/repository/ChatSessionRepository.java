@@ -1,10 +1,36 @@
 package com.careerguidance.repository;
 
+import com.careerguidance.dto.ChatSessionSummary;
 import com.careerguidance.model.ChatSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface ChatSessionRepository extends JpaRepository<ChatSession, Long> {
-    List<ChatSession> findByUserIdOrderByCreatedAtDesc(Long userId);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ChatSession s where s.id = :id")
+    Optional<ChatSession> findForUpdate(@Param("id") Long id);
+
+    // keyset page by last activity (idx_chat_sessions_user_activity), most recently active first
+    @Query("select s.id as id, s.title as title, s.createdAt as createdAt, s.lastActivityAt as lastActivityAt, " +
+            "s.lastMessagePreview as lastMessagePreview from ChatSession s where s.user.id = :userId " +
+            "and (s.lastActivityAt < :beforeTime or (s.lastActivityAt = :beforeTime and s.id < :beforeId)) " +
+            "order by s.lastActivityAt desc, s.id desc")
+    List<ChatSessionSummary> findPageByUserId(@Param("userId") Long userId, @Param("beforeTime") Instant beforeTime,
+            @Param("beforeId") long beforeId, Limit limit);
+
+    // keyset page by creation time (idx_chat_sessions_user_created), newest first
+    @Query("select s.id as id, s.title as title, s.createdAt as createdAt, s.lastActivityAt as lastActivityAt, " +
+            "s.lastMessagePreview as lastMessagePreview from ChatSession s where s.user.id = :userId " +
+            "and (s.createdAt < :beforeTime or (s.createdAt = :beforeTime and s.id < :beforeId)) " +
+            "order by s.createdAt desc, s.id desc")
+    List<ChatSessionSummary> findPageByUserIdOrderByCreated(@Param("userId") Long userId, @Param("beforeTime") Instant beforeTime,
+            @Param("beforeId") long beforeId, Limit limit);
 }
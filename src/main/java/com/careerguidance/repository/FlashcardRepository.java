@@ -1,10 +1,19 @@
 package com.careerguidance.repository;
 
 import com.careerguidance.model.FlashcardCollection;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface FlashcardRepository extends JpaRepository<FlashcardCollection, Long> {
-    List<FlashcardCollection> findByUserIdOrderByCreatedAtDesc(Long userId);
+    // keyset page, newest first, rows strictly older than (beforeTime, beforeId); see PageCursor
+    @Query("select f from FlashcardCollection f where f.user.id = :userId " +
+            "and (f.createdAt < :beforeTime or (f.createdAt = :beforeTime and f.id < :beforeId)) " +
+            "order by f.createdAt desc, f.id desc")
+    List<FlashcardCollection> findPageByUserId(@Param("userId") Long userId, @Param("beforeTime") Instant beforeTime,
+            @Param("beforeId") long beforeId, Limit limit);
 }
@@ -1,9 +1,20 @@
 package com.careerguidance.repository;
 
+import com.careerguidance.dto.PathSummary;
 import com.careerguidance.model.LearningPath;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface LearningPathRepository extends JpaRepository<LearningPath, Long> {
+    @EntityGraph(attributePaths = "path")
     List<LearningPath> findByUserId(Long userId);
+
+    @Query("select new com.careerguidance.dto.PathSummary(lp.id, lp.domain, lp.createdAt, count(i.id), " +
+            "sum(case when i.status = 'completed' then 1 else 0 end)) " +
+            "from LearningPath lp left join lp.path i where lp.user.id = :userId " +
+            "group by lp.id, lp.domain, lp.createdAt order by lp.id")
+    List<PathSummary> findSummariesByUserId(@Param("userId") Long userId);
 }
@@ -1,10 +1,19 @@
 package com.careerguidance.repository;
 
 import com.careerguidance.model.MockInterview;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface MockInterviewRepository extends JpaRepository<MockInterview, Long> {
-    List<MockInterview> findByUserIdOrderByCreatedAtDesc(Long userId);
+    // keyset page, newest first, rows strictly older than (beforeTime, beforeId); see PageCursor
+    @Query("select m from MockInterview m where m.user.id = :userId " +
+            "and (m.createdAt < :beforeTime or (m.createdAt = :beforeTime and m.id < :beforeId)) " +
+            "order by m.createdAt desc, m.id desc")
+    List<MockInterview> findPageByUserId(@Param("userId") Long userId, @Param("beforeTime") Instant beforeTime,
+            @Param("beforeId") long beforeId, Limit limit);
 }
@@ -0,0 +1,29 @@
+package com.careerguidance.repository;
+
+import com.careerguidance.dto.NextPathItem;
+import com.careerguidance.model.PathItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface PathItemRepository extends JpaRepository<PathItem, Long> {
+
+    @Query("select i from PathItem i join fetch i.learningPath lp " +
+            "where i.id = :itemId and lp.id = :pathId and lp.user.id = :userId")
+    Optional<PathItem> findForUser(@Param("pathId") Long pathId, @Param("userId") Long userId, @Param("itemId") Long itemId);
+
+    @Query("select i from PathItem i join fetch i.learningPath lp " +
+            "where i.position = :position and lp.id = :pathId and lp.user.id = :userId")
+    Optional<PathItem> findByPositionForUser(@Param("pathId") Long pathId, @Param("userId") Long userId, @Param("position") int position);
+
+    // first item (by position) that is not completed, for each of the given paths
+    @Query("select i.learningPath.id as pathId, i.id as id, i.position as position, i.topic as topic, " +
+            "i.endDate as endDate, i.status as status from PathItem i " +
+            "where i.learningPath.id in :pathIds and i.position = (select min(j.position) from PathItem j " +
+            "where j.learningPath = i.learningPath and (j.status is null or j.status <> 'completed'))")
+    List<NextPathItem> findNextOpenItems(@Param("pathIds") Collection<Long> pathIds);
+}
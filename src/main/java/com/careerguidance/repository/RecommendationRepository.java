@@ -1,10 +1,19 @@
 package com.careerguidance.repository;
 
 import com.careerguidance.model.Recommendation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface RecommendationRepository extends JpaRepository<Recommendation, Long> {
-    List<Recommendation> findByUserIdOrderByCreatedAtDesc(Long userId);
+    // keyset page, newest first, rows strictly older than (beforeTime, beforeId); see PageCursor
+    @Query("select r from Recommendation r where r.user.id = :userId " +
+            "and (r.createdAt < :beforeTime or (r.createdAt = :beforeTime and r.id < :beforeId)) " +
+            "order by r.createdAt desc, r.id desc")
+    List<Recommendation> findPageByUserId(@Param("userId") Long userId, @Param("beforeTime") Instant beforeTime,
+            @Param("beforeId") long beforeId, Limit limit);
 }
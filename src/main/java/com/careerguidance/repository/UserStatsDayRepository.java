@@ -0,0 +1,50 @@
+package com.careerguidance.repository;
+
+import com.careerguidance.dto.OverdueCounts;
+import com.careerguidance.model.UserStatsDay;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+// written only while the user's user_stats row is locked (UserStatsService), so update-then-insert cannot race
+public interface UserStatsDayRepository extends JpaRepository<UserStatsDay, UserStatsDay.Key> {
+
+    @Modifying
+    @Query("update UserStatsDay d set d.openItems = d.openItems + :open, d.completedItems = d.completedItems + :completed " +
+            "where d.userId = :userId and d.endDate = :day")
+    int addCounts(@Param("userId") Long userId, @Param("day") String day,
+                  @Param("open") int open, @Param("completed") int completed);
+
+    @Modifying
+    @Query(value = "insert into user_stats_days (user_id, end_date, open_items, completed_items) " +
+            "values (:userId, :day, :open, :completed)", nativeQuery = true)
+    int insertCounts(@Param("userId") Long userId, @Param("day") String day,
+                     @Param("open") int open, @Param("completed") int completed);
+
+    @Modifying
+    @Query("delete from UserStatsDay d where d.userId = :userId and d.endDate in :days and d.openItems <= 0 and d.completedItems <= 0")
+    int deleteEmpty(@Param("userId") Long userId, @Param("days") Collection<String> days);
+
+    @Modifying
+    @Query("delete from UserStatsDay d where d.userId = :userId")
+    int deleteByUser(@Param("userId") Long userId);
+
+    // open items due before today, bucketed by lateness; only the days with overdue items are read
+    @Query("select new com.careerguidance.dto.OverdueCounts(" +
+            "sum(case when d.endDate >= :weekAgo then d.openItems else 0 end), " +
+            "sum(case when d.endDate < :weekAgo and d.endDate >= :monthAgo then d.openItems else 0 end), " +
+            "sum(case when d.endDate < :monthAgo then d.openItems else 0 end)) " +
+            "from UserStatsDay d where d.userId = :userId and d.endDate < :today and d.openItems > 0")
+    OverdueCounts findOverdue(@Param("userId") Long userId, @Param("today") String today,
+                              @Param("weekAgo") String weekAgo, @Param("monthAgo") String monthAgo);
+
+    // newest first from before (exclusive): the streak walks back a page at a time until it finds a gap
+    @Query("select d.endDate from UserStatsDay d where d.userId = :userId and d.endDate < :before and d.completedItems > 0 " +
+            "order by d.endDate desc")
+    List<String> findCompletedDaysBefore(@Param("userId") Long userId, @Param("before") String before, Limit limit);
+}
@@ -0,0 +1,24 @@
+package com.careerguidance.repository;
+
+import com.careerguidance.model.UserStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserStats s where s.userId = :userId")
+    Optional<UserStats> findForUpdate(@Param("userId") Long userId);
+
+    // 1 if this call created the (empty) row, 0 if it exists; concurrent callers wait for the first one to commit
+    @Modifying
+    @Query(value = "insert into user_stats (user_id, total_items, completed_items, open_items, updated_at) " +
+            "values (:userId, 0, 0, 0, current_timestamp) on conflict do nothing", nativeQuery = true)
+    int insertIfMissing(@Param("userId") Long userId);
+}
@@ -0,0 +1,248 @@
+package com.careerguidance.service;
+
+import com.careerguidance.exception.AiUnavailableException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+ AiCallPolicy: retries, hedging and the per-request deadline around one upstream Gemini call.
+ - retries: up to ai.retry.max-attempts attempts for overload failures only (429, 5xx, timeouts - GeminiClient.isOverload);
+   before attempt n it sleeps a random time in [0, min(ai.retry.max-delay-ms, ai.retry.base-delay-ms * 2^(n-2))]
+   ("full jitter", so callers that failed together don't come back together), at least Gemini's Retry-After if it sent one.
+   Fast-fail rejections of the limiter/breaker (AiUnavailableException) are never retried
+ - deadline: all attempts of one call, including backoff sleeps, finish within ai.deadline-ms; an attempt still running
+   at the deadline is cancelled and the caller gets AiUnavailableException; a retry that could not start in time is skipped.
+   Attempts run on the aiAttemptExecutor bean (AiExecutionConfig), so the caller's thread is free to watch the deadline
+ - hedging (ai.hedge.operations, idempotent operations only): if an attempt has not answered after the p95 of that
+   operation's recent upstream latencies (ai.hedge.default-delay-ms until ai.hedge.min-samples are known), a second
+   identical attempt starts; the first success wins and the other is cancelled. No hedge while the breaker is not closed
+   or the limiter has no free slot - an extra request would only add load to a struggling upstream
+ - streamed calls have the same deadline - a stream still running then is cancelled, even halfway through the reply -
+   are retried only while no token has reached the caller, and are never hedged (the caller would get tokens twice)
+*/
+
+@Component
+public class AiCallPolicy {
+
+    private static final int LATENCY_SAMPLES = 200;
+
+    private final AiConcurrencyLimiter limiter;
+    private final AiCircuitBreaker breaker;
+    private final AiMetrics metrics;
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long deadlineNanos;
+    private final long retryAfterSeconds;
+    private final Set<String> hedgedOperations;
+    private final long hedgeMinDelayNanos;
+    private final long hedgeDefaultDelayNanos;
+    private final int hedgeMinSamples;
+
+    private final AsyncTaskExecutor attempts;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    public AiCallPolicy(AiConcurrencyLimiter limiter, AiCircuitBreaker breaker, AiMetrics metrics,
+                        @Qualifier("aiAttemptExecutor") AsyncTaskExecutor attempts,
+                        @Value("${ai.retry.max-attempts:3}") int maxAttempts,
+                        @Value("${ai.retry.base-delay-ms:250}") long baseDelayMs,
+                        @Value("${ai.retry.max-delay-ms:4000}") long maxDelayMs,
+                        @Value("${ai.deadline-ms:45000}") long deadlineMs,
+                        @Value("${ai.upstream.retry-after-seconds:2}") long retryAfterSeconds,
+                        @Value("${ai.hedge.operations:explain,resources}") List<String> hedgedOperations,
+                        @Value("${ai.hedge.min-delay-ms:250}") long hedgeMinDelayMs,
+                        @Value("${ai.hedge.default-delay-ms:3000}") long hedgeDefaultDelayMs,
+                        @Value("${ai.hedge.min-samples:20}") int hedgeMinSamples) {
+        this.limiter = limiter;
+        this.breaker = breaker;
+        this.metrics = metrics;
+        this.attempts = attempts;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.hedgedOperations = new HashSet<>();
+        for (String op : hedgedOperations) {
+            if (!op.isBlank()) this.hedgedOperations.add(op.trim());
+        }
+        this.hedgeMinDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedgeMinDelayMs);
+        this.hedgeDefaultDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedgeDefaultDelayMs);
+        this.hedgeMinSamples = Math.min(Math.max(1, hedgeMinSamples), LATENCY_SAMPLES);
+    }
+
+    public <T> T call(String operation, Supplier<T> attempt) {
+        long deadline = System.nanoTime() + deadlineNanos;
+        for (int n = 1; ; n++) {
+            try {
+                return attempt(operation, attempt, deadline, hedgedOperations.contains(operation));
+            } catch (RuntimeException e) {
+                if (n >= maxAttempts || !retryable(e)) throw e;
+                long delayMs = backoffMs(n, e);
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs) >= deadline) throw e;
+                metrics.retry(operation);
+                sleep(delayMs);
+            }
+        }
+    }
+
+    /** Streamed variant: attempt gets the caller's token consumer; no retry once a token was handed on. */
+    public <T> T callStream(String operation, Consumer<String> onToken, Function<Consumer<String>, T> attempt) {
+        long deadline = System.nanoTime() + deadlineNanos;
+        AtomicBoolean started = new AtomicBoolean();
+        Consumer<String> tracking = token -> {
+            started.set(true);
+            onToken.accept(token);
+        };
+        for (int n = 1; ; n++) {
+            try {
+                return attempt(operation, () -> attempt.apply(tracking), deadline, false);
+            } catch (RuntimeException e) {
+                if (started.get() || n >= maxAttempts || !retryable(e)) throw e;
+                long delayMs = backoffMs(n, e);
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs) >= deadline) throw e;
+                metrics.retry(operation);
+                sleep(delayMs);
+            }
+        }
+    }
+
+    // one attempt, plus its hedge if allowed, run off the caller's thread so the deadline can cut it short
+    private <T> T attempt(String operation, Supplier<T> attempt, long deadline, boolean hedge) {
+        CompletionService<T> done = new ExecutorCompletionService<>(attempts);
+        List<Future<T>> started = new ArrayList<>(2);
+        started.add(done.submit(() -> timed(operation, attempt)));
+        boolean hedged = false;
+        RuntimeException failure = null;
+        try {
+            int pending = 1;
+            while (pending > 0) {
+                long wait = deadline - System.nanoTime();
+                boolean mayHedge = hedge && !hedged;
+                if (mayHedge) wait = Math.min(wait, hedgeDelayNanos(operation));
+                Future<T> finished = wait > 0 ? done.poll(wait, TimeUnit.NANOSECONDS) : null;
+                if (finished == null) {
+                    if (System.nanoTime() - deadline >= 0) {
+                        metrics.deadlineExceeded(operation);
+                        throw new AiUnavailableException("AI service took too long to answer, please try again", retryAfterSeconds);
+                    }
+                    hedged = true; // decided once per attempt, fired or not
+                    if (breaker.state() == AiCircuitBreaker.State.CLOSED && limiter.hasFreeSlot()) {
+                        metrics.hedge(operation, "started");
+                        started.add(done.submit(() -> timed(operation, attempt)));
+                        pending++;
+                    }
+                    continue;
+                }
+                pending--;
+                try {
+                    T result = finished.get();
+                    if (started.size() > 1) metrics.hedge(operation, finished == started.get(0) ? "primary-won" : "hedge-won");
+                    return result;
+                } catch (ExecutionException e) {
+                    failure = e.getCause() instanceof RuntimeException r ? r : new RuntimeException(e.getCause());
+                }
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for Gemini", e);
+        } finally {
+            for (Future<T> f : started) f.cancel(true);
+        }
+    }
+
+    private <T> T timed(String operation, Supplier<T> attempt) {
+        long start = System.nanoTime();
+        T result = attempt.get();
+        recordLatency(operation, System.nanoTime() - start);
+        return result;
+    }
+
+    private static boolean retryable(RuntimeException e) {
+        return !(e instanceof AiUnavailableException) && GeminiClient.isOverload(e);
+    }
+
+    private long backoffMs(int failedAttempt, RuntimeException e) {
+        long cap = Math.min(maxDelayMs, baseDelayMs << Math.min(failedAttempt - 1, 20));
+        long jitter = ThreadLocalRandom.current().nextLong(cap + 1);
+        return Math.max(jitter, retryAfterMs(e));
+    }
+
+    // Retry-After of a 429/503, in seconds (the HTTP-date form is not used by Gemini)
+    private static long retryAfterMs(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof RestClientResponseException r && r.getResponseHeaders() != null) {
+                String value = r.getResponseHeaders().getFirst("Retry-After");
+                if (value == null) return 0;
+                try {
+                    return Math.max(0, Long.parseLong(value.trim())) * 1000;
+                } catch (NumberFormatException ignored) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while backing off", e);
+        }
+    }
+
+    private void recordLatency(String operation, long nanos) {
+        if (hedgedOperations.contains(operation)) latencies.computeIfAbsent(operation, k -> new LatencyWindow()).add(nanos);
+    }
+
+    private long hedgeDelayNanos(String operation) {
+        LatencyWindow window = latencies.get(operation);
+        long p95 = window == null ? -1 : window.p95(hedgeMinSamples);
+        return p95 < 0 ? hedgeDefaultDelayNanos : Math.max(hedgeMinDelayNanos, p95);
+    }
+
+    // the last LATENCY_SAMPLES successful attempt durations of one operation
+    private static class LatencyWindow {
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private int count;
+
+        synchronized void add(long nanos) {
+            samples[count % LATENCY_SAMPLES] = nanos;
+            count++;
+        }
+
+        long p95(int minSamples) {
+            long[] sorted;
+            synchronized (this) {
+                if (count < minSamples) return -1;
+                sorted = Arrays.copyOf(samples, Math.min(count, LATENCY_SAMPLES));
+            }
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> hedgeDelays = new TreeMap<>();
+        for (String op : hedgedOperations) hedgeDelays.put(op, TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos(op)));
+        return Map.of(
+                "maxAttempts", maxAttempts,
+                "deadlineMs", TimeUnit.NANOSECONDS.toMillis(deadlineNanos),
+                "hedgeDelayMs", hedgeDelays
+        );
+    }
+}
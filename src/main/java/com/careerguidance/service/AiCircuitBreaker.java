@@ -0,0 +1,159 @@
+package com.careerguidance.service;
+
+import com.careerguidance.exception.AiUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/*
+ AiCircuitBreaker: stops calling Gemini for a while once most recent calls failed with overload errors.
+ - CLOSED: outcomes of the last ai.breaker.window-size calls are kept; once at least ai.breaker.min-calls are
+   recorded and ai.breaker.failure-rate-percent of them are overload failures (GeminiClient.isOverload), it opens
+ - OPEN: every call fails at once with AiUnavailableException (503, Retry-After = time left) for ai.breaker.open-seconds
+ - HALF_OPEN: ai.breaker.half-open-calls trial calls go through; all succeed -> CLOSED, any overload failure -> OPEN
+ - other errors (bad request, unreadable reply) say nothing about Gemini's health and count as successes;
+   calls cancelled by AiCallPolicy (GeminiClient.isCancelled) are not recorded at all
+*/
+
+@Component
+public class AiCircuitBreaker {
+
+    private static final Logger LOGGER = Logger.getLogger(AiCircuitBreaker.class.getName());
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean enabled;
+    private final int minCalls;
+    private final int failureRatePercent;
+    private final long openMillis;
+    private final int halfOpenCalls;
+
+    private final boolean[] window; // true = overload failure
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AiCircuitBreaker(@Value("${ai.breaker.enabled:true}") boolean enabled,
+                            @Value("${ai.breaker.window-size:20}") int windowSize,
+                            @Value("${ai.breaker.min-calls:10}") int minCalls,
+                            @Value("${ai.breaker.failure-rate-percent:50}") int failureRatePercent,
+                            @Value("${ai.breaker.open-seconds:30}") long openSeconds,
+                            @Value("${ai.breaker.half-open-calls:3}") int halfOpenCalls) {
+        this.enabled = enabled;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minCalls = Math.min(Math.max(1, minCalls), window.length);
+        this.failureRatePercent = failureRatePercent;
+        this.openMillis = openSeconds * 1000;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    public <T> T call(Supplier<T> upstreamCall) {
+        if (!enabled) return upstreamCall.get();
+        boolean probe = acquirePermission();
+        T result;
+        try {
+            result = upstreamCall.get();
+        } catch (AiUnavailableException e) {
+            abandon(probe); // shed locally by the limiter: Gemini was never asked
+            throw e;
+        } catch (RuntimeException e) {
+            if (GeminiClient.isCancelled(e)) {
+                abandon(probe); // cancelled by AiCallPolicy (losing hedge, deadline): not an answer from Gemini
+                throw e;
+            }
+            onResult(probe, GeminiClient.isOverload(e));
+            throw e;
+        }
+        onResult(probe, false);
+        return result;
+    }
+
+    private synchronized boolean acquirePermission() {
+        if (state == State.OPEN) {
+            long left = openedAt + openMillis - System.currentTimeMillis();
+            if (left > 0) {
+                rejected.incrementAndGet();
+                throw new AiUnavailableException("AI service is temporarily unavailable, please try again later", (left + 999) / 1000);
+            }
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenCalls) {
+                rejected.incrementAndGet();
+                throw new AiUnavailableException("AI service is recovering, please try again shortly", 1);
+            }
+            probesStarted++;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void onResult(boolean probe, boolean failure) {
+        if (probe) {
+            if (state != State.HALF_OPEN) return;
+            if (failure) {
+                open();
+            } else if (++probesSucceeded >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state != State.CLOSED) return; // started before the breaker opened
+
+        if (recorded == window.length && window[next]) failures--;
+        window[next] = failure;
+        if (failure) failures++;
+        next = (next + 1) % window.length;
+        if (recorded < window.length) recorded++;
+
+        if (recorded >= minCalls && failures * 100 >= failureRatePercent * recorded) open();
+    }
+
+    private synchronized void abandon(boolean probe) {
+        if (probe && state == State.HALF_OPEN) probesStarted--;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        opened.incrementAndGet();
+        LOGGER.warning("Gemini circuit breaker opened for " + openMillis / 1000 + " s");
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        LOGGER.info("Gemini circuit breaker closed");
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        return Map.of(
+                "enabled", enabled,
+                "state", state.name(),
+                "failureRate", recorded == 0 ? 0.0 : (double) failures / recorded,
+                "recordedCalls", recorded,
+                "opened", opened.get(),
+                "rejected", rejected.get()
+        );
+    }
+}
@@ -0,0 +1,160 @@
+package com.careerguidance.service;
+
+import com.careerguidance.exception.AiUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/*
+ AiConcurrencyLimiter: adaptive (AIMD) cap on the Gemini calls in flight from this node.
+ - the limit starts at ai.upstream.initial-concurrent and moves between ai.upstream.min-concurrent and
+   ai.upstream.max-concurrent: +1/limit per call that finished in time while the limit was in use (about +1 per
+   limit's worth of calls), x ai.upstream.backoff-ratio when a call was throttled (429), failed with 5xx or I/O,
+   or took longer than ai.upstream.latency-target-ms; calls cancelled by AiCallPolicy leave the limit as it is
+ - at most ai.upstream.max-queue callers wait, each for up to ai.upstream.acquire-timeout-ms; everyone else is
+   rejected at once with AiUnavailableException (503 + Retry-After), so a slow Gemini ties up at most
+   max-concurrent + max-queue request threads and non-AI endpoints keep their threads
+*/
+
+@Component
+public class AiConcurrencyLimiter {
+
+    private final int minConcurrent;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long acquireTimeoutMs;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final long retryAfterSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int waiting;
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong decreases = new AtomicLong();
+
+    public AiConcurrencyLimiter(@Value("${ai.upstream.min-concurrent:2}") int minConcurrent,
+                                @Value("${ai.upstream.initial-concurrent:16}") int initialConcurrent,
+                                @Value("${ai.upstream.max-concurrent:64}") int maxConcurrent,
+                                @Value("${ai.upstream.max-queue:50}") int maxQueue,
+                                @Value("${ai.upstream.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+                                @Value("${ai.upstream.latency-target-ms:20000}") long latencyTargetMs,
+                                @Value("${ai.upstream.backoff-ratio:0.7}") double backoffRatio,
+                                @Value("${ai.upstream.retry-after-seconds:2}") long retryAfterSeconds) {
+        this.minConcurrent = Math.max(1, minConcurrent);
+        this.maxConcurrent = Math.max(this.minConcurrent, maxConcurrent);
+        this.maxQueue = maxQueue;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMs);
+        this.backoffRatio = backoffRatio;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limit = Math.min(this.maxConcurrent, Math.max(this.minConcurrent, initialConcurrent));
+    }
+
+    public <T> T call(Supplier<T> upstreamCall) {
+        acquire();
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        boolean cancelled = false;
+        try {
+            return upstreamCall.get();
+        } catch (RuntimeException e) {
+            cancelled = GeminiClient.isCancelled(e);
+            overloaded = GeminiClient.isOverload(e);
+            throw e;
+        } finally {
+            release(cancelled ? null : overloaded || System.nanoTime() - start > latencyTargetNanos);
+        }
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                acquired.incrementAndGet();
+                return;
+            }
+            if (waiting >= maxQueue) throw busy();
+            waiting++;
+            try {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+                while (inFlight >= (int) limit) {
+                    if (nanos <= 0) throw busy();
+                    nanos = slotFreed.awaitNanos(nanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for an AI slot", e);
+            } finally {
+                waiting--;
+            }
+            inFlight++;
+            acquired.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // overloaded == null: the call was cancelled, its outcome says nothing either way
+    private void release(Boolean overloaded) {
+        lock.lock();
+        try {
+            // only grow while the limit is actually being used, so an idle node doesn't drift to the max
+            boolean limitInUse = inFlight * 2 >= limit;
+            inFlight--;
+            if (Boolean.TRUE.equals(overloaded)) {
+                limit = Math.max(minConcurrent, limit * backoffRatio);
+                decreases.incrementAndGet();
+            } else if (Boolean.FALSE.equals(overloaded) && limitInUse) {
+                limit = Math.min(maxConcurrent, limit + 1.0 / limit);
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** True when a call could start right now without queueing (used to decide whether hedging is affordable). */
+    public boolean hasFreeSlot() {
+        lock.lock();
+        try {
+            return inFlight < (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AiUnavailableException busy() {
+        rejected.incrementAndGet();
+        return new AiUnavailableException("AI service is busy, please try again shortly", retryAfterSeconds);
+    }
+
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            return Map.of(
+                    "limit", (int) limit,
+                    "minConcurrent", minConcurrent,
+                    "maxConcurrent", maxConcurrent,
+                    "inFlight", inFlight,
+                    "waiting", waiting,
+                    "acquired", acquired.get(),
+                    "rejected", rejected.get(),
+                    "decreases", decreases.get()
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.careerguidance.service;
+
+import com.careerguidance.model.FlashcardCollection;
+import com.careerguidance.model.MockInterview;
+import com.careerguidance.model.Recommendation;
+import com.careerguidance.model.User;
+import com.careerguidance.repository.FlashcardRepository;
+import com.careerguidance.repository.MockInterviewRepository;
+import com.careerguidance.repository.RecommendationRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ AiGenerationService: AI generations that end in stored history entries, by type.
+ - skill-gap -> Recommendation, mock-interview -> MockInterview, flashcards -> FlashcardCollection,
+   path-assessments -> AssessmentRecords for the topics of a learning path (AssessmentService.generateForPath)
+ - generate(...) calls Gemini and store(...) saves the result, so a job can save it in the same transaction that
+   marks the job done (AiJobQueue); run(...) does both for the synchronous endpoints
+ - params are the request body as sent by the client; the returned map is the response body ({result, <entity>Id});
+   validate(...) rejects params generate(...) could not use with IllegalArgumentException (400), before a job is queued
+ - path-assessments saves each batch as it goes; running it again only generates the topics still missing
+*/
+
+@Service
+public class AiGenerationService {
+
+    private final AiService ai;
+    private final UserService userService;
+    private final AssessmentService assessmentService;
+    private final RecommendationRepository recommendationRepo;
+    private final MockInterviewRepository mockInterviewRepo;
+    private final FlashcardRepository flashcardRepo;
+
+    public AiGenerationService(AiService ai,
+                               UserService userService,
+                               AssessmentService assessmentService,
+                               RecommendationRepository recommendationRepo,
+                               MockInterviewRepository mockInterviewRepo,
+                               FlashcardRepository flashcardRepo) {
+        this.ai = ai;
+        this.userService = userService;
+        this.assessmentService = assessmentService;
+        this.recommendationRepo = recommendationRepo;
+        this.mockInterviewRepo = mockInterviewRepo;
+        this.flashcardRepo = flashcardRepo;
+    }
+
+    public Map<String, Object> run(String type, Long userId, Map<String, Object> params) {
+        return store(type, userId, params, generate(type, userId, params));
+    }
+
+    public JsonNode generate(String type, Long userId, Map<String, Object> params) {
+        return switch (type) {
+            case "skill-gap" -> ai.analyzeSkillGap(
+                    String.valueOf(params.getOrDefault("resume", "")), targetRole(params));
+            case "mock-interview" -> ai.generateMockInterview(role(params), rounds(params));
+            case "flashcards" -> ai.generateFlashcards(
+                    topic(params), count(params), Boolean.parseBoolean(String.valueOf(params.get("refresh"))));
+            case "path-assessments" -> {
+                Long pathId = pathId(params);
+                List<String> topics = topics(params);
+                assessmentService.generateForPath(pathId, userId, topics);
+                yield JsonNodeFactory.instance.objectNode().put("pathId", pathId);
+            }
+            default -> throw new IllegalArgumentException("Unknown generation type: " + type);
+        };
+    }
+
+    public static void validate(String type, Map<String, Object> params) {
+        switch (type) {
+            case "skill-gap" -> { }
+            case "mock-interview" -> rounds(params);
+            case "flashcards" -> count(params);
+            case "path-assessments" -> {
+                pathId(params);
+                topics(params);
+            }
+            default -> throw new IllegalArgumentException("Unknown job type: " + type);
+        }
+    }
+
+    public Map<String, Object> store(String type, Long userId, Map<String, Object> params, JsonNode res) {
+        switch (type) {
+            case "skill-gap" -> {
+                User user = userService.reference(userId);
+                Recommendation r = new Recommendation();
+                r.setUser(user);
+                r.setTargetRole(targetRole(params));
+                r.setContentJson(res.toString());
+                recommendationRepo.save(r);
+                return Map.of("result", res, "recommendationId", r.getId());
+            }
+            case "mock-interview" -> {
+                User user = userService.reference(userId);
+                MockInterview mi = new MockInterview();
+                mi.setUser(user);
+                mi.setRoleName(role(params));
+                mi.setContentJson(res.toString());
+                mockInterviewRepo.save(mi);
+                return Map.of("result", res, "mockInterviewId", mi.getId());
+            }
+            case "flashcards" -> {
+                String topic = topic(params);
+                User user = userService.reference(userId);
+                FlashcardCollection fc = new FlashcardCollection();
+                fc.setUser(user);
+                fc.setTopic(topic);
+                fc.setTitle("Flashcards: " + topic);
+                fc.setContentJson(res.toString());
+                flashcardRepo.save(fc);
+                return Map.of("result", res, "flashcardCollectionId", fc.getId());
+            }
+            case "path-assessments" -> {
+                return Map.of("result", res);
+            }
+            default -> throw new IllegalArgumentException("Unknown generation type: " + type);
+        }
+    }
+
+    private static String targetRole(Map<String, Object> params) {
+        return String.valueOf(params.getOrDefault("targetRole", "Software Engineer"));
+    }
+
+    private static String role(Map<String, Object> params) {
+        return String.valueOf(params.getOrDefault("role", "Software Engineer"));
+    }
+
+    private static String topic(Map<String, Object> params) {
+        return String.valueOf(params.getOrDefault("topic", ""));
+    }
+
+    private static int rounds(Map<String, Object> params) {
+        return positiveInt(params, "rounds", 5);
+    }
+
+    private static int count(Map<String, Object> params) {
+        return positiveInt(params, "count", 10);
+    }
+
+    private static Long pathId(Map<String, Object> params) {
+        Object value = params.get("pathId");
+        if (value == null) throw new IllegalArgumentException("pathId is required");
+        try {
+            return Long.valueOf(String.valueOf(value).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("pathId must be a number");
+        }
+    }
+
+    private static List<String> topics(Map<String, Object> params) {
+        if (!(params.get("topics") instanceof List<?> topics)) throw new IllegalArgumentException("topics must be a list");
+        return topics.stream().map(String::valueOf).toList();
+    }
+
+    private static int positiveInt(Map<String, Object> params, String name, int defaultValue) {
+        Object value = params.get(name);
+        if (value == null) return defaultValue;
+        try {
+            int n = Integer.parseInt(String.valueOf(value).trim());
+            if (n > 0) return n;
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException(name + " must be a positive whole number");
+    }
+}
@@ -0,0 +1,203 @@
+package com.careerguidance.service;
+
+import com.careerguidance.exception.AiUnavailableException;
+import com.careerguidance.exception.NotFoundException;
+import com.careerguidance.model.AiJob;
+import com.careerguidance.repository.AiJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Supplier;
+
+/*
+ AiJobQueue: the ai_jobs table as a work queue shared by all nodes (no broker, just the application's database).
+ - claim(...) takes due rows with SELECT ... FOR UPDATE SKIP LOCKED and leases them to the worker for
+   ai.jobs.visibility-timeout-seconds; a worker that dies leaves the lease to expire and the row is claimed again,
+   unless that was the job's last attempt - then it goes FAILED, so a job that crashes its node is not retried forever
+ - complete(...) saves the job's result entity and marks the job SUCCEEDED in one transaction, only while the
+   claim is still the caller's, so a job taken over after an expired lease is never stored twice
+ - fail(...) puts the job back with exponential backoff (ai.jobs.retry-base-delay-seconds, at least the
+   upstream's Retry-After) until ai.jobs.max-attempts claims were used; then it stays FAILED (dead letter).
+   Only failures a later attempt can get past are retried (AI unavailable, I/O, interrupted by a shutdown); any
+   other error would fail the same way again and goes FAILED at once
+ - every failure stores a stable error code for clients next to the raw message for operators
+*/
+
+@Service
+public class AiJobQueue {
+
+    public static final String ERROR_AI_UNAVAILABLE = "ai_unavailable";
+    public static final String ERROR_UPSTREAM = "upstream_error";
+    public static final String ERROR_INVALID_PARAMS = "invalid_params";
+    public static final String ERROR_NOT_FOUND = "not_found";
+    public static final String ERROR_WORKER_LOST = "worker_lost";
+    public static final String ERROR_INTERNAL = "internal_error";
+
+    private final AiJobRepository jobRepo;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final int maxAttempts;
+    private final Duration visibilityTimeout;
+    private final long retryBaseDelaySeconds;
+
+    public AiJobQueue(AiJobRepository jobRepo,
+                      @Value("${ai.jobs.max-attempts:3}") int maxAttempts,
+                      @Value("${ai.jobs.visibility-timeout-seconds:300}") long visibilityTimeoutSeconds,
+                      @Value("${ai.jobs.retry-base-delay-seconds:10}") long retryBaseDelaySeconds) {
+        this.jobRepo = jobRepo;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.visibilityTimeout = Duration.ofSeconds(visibilityTimeoutSeconds);
+        this.retryBaseDelaySeconds = retryBaseDelaySeconds;
+    }
+
+    public Duration getVisibilityTimeout() {
+        return visibilityTimeout;
+    }
+
+    @Transactional
+    public AiJob enqueue(Long userId, String type, Map<String, Object> params) {
+        AiJob job = new AiJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setUserId(userId);
+        job.setType(type);
+        job.setParamsJson(toJson(params));
+        job.setMaxAttempts(maxAttempts);
+        job.setRunAfter(job.getCreatedAt());
+        return jobRepo.save(job);
+    }
+
+    @Transactional
+    public List<AiJob> claim(String worker, int limit) {
+        Instant now = Instant.now();
+        List<AiJob> claimed = new ArrayList<>();
+        for (AiJob job : jobRepo.findClaimable(now, limit)) {
+            if (job.getStatus() == AiJob.Status.RUNNING && job.getAttempts() >= job.getMaxAttempts()) {
+                // the last attempt's lease expired: its worker died, perhaps because of this job - don't run it again
+                job.setStatus(AiJob.Status.FAILED);
+                job.setFinishedAt(now);
+                job.setLeaseUntil(null);
+                job.setLastError("Worker " + job.getLockedBy() + " stopped during attempt " + job.getAttempts());
+                job.setErrorCode(ERROR_WORKER_LOST);
+                continue;
+            }
+            claimed.add(job);
+            job.setStatus(AiJob.Status.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLockedBy(worker);
+            job.setLeaseUntil(now.plus(visibilityTimeout));
+            job.setStartedAt(now);
+        }
+        return claimed;
+    }
+
+    @Transactional
+    public void extendLeases(String worker, Collection<String> jobIds) {
+        if (!jobIds.isEmpty()) jobRepo.extendLeases(jobIds, worker, AiJob.Status.RUNNING, Instant.now().plus(visibilityTimeout));
+    }
+
+    /** Runs store and marks the job SUCCEEDED with its result; false (nothing stored) if the claim was lost. */
+    @Transactional
+    public boolean complete(AiJob claimed, Supplier<Map<String, Object>> store) {
+        AiJob job = jobRepo.findForUpdate(claimed.getId()).orElse(null);
+        if (!stillClaimed(job, claimed)) return false;
+        job.setResultJson(toJson(store.get()));
+        job.setStatus(AiJob.Status.SUCCEEDED);
+        job.setFinishedAt(Instant.now());
+        job.setLeaseUntil(null);
+        job.setLastError(null);
+        job.setErrorCode(null);
+        job.setRetryAfter(null);
+        return true;
+    }
+
+    /**
+     * Requeues the job with backoff, or leaves it FAILED once its attempts are used up or the error is not
+     * transient. Returns the new state.
+     */
+    @Transactional
+    public Optional<AiJob.Status> fail(AiJob claimed, RuntimeException error) {
+        AiJob job = jobRepo.findForUpdate(claimed.getId()).orElse(null);
+        if (!stillClaimed(job, claimed)) return Optional.empty();
+        String message = String.valueOf(error.getMessage());
+        job.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        job.setErrorCode(errorCode(error));
+        job.setRetryAfter(error instanceof AiUnavailableException u ? u.getRetryAfterSeconds() : null);
+        job.setLeaseUntil(null);
+        Instant now = Instant.now();
+        if (job.getAttempts() >= job.getMaxAttempts() || !isTransient(error)) {
+            job.setStatus(AiJob.Status.FAILED);
+            job.setFinishedAt(now);
+        } else {
+            long delay = retryBaseDelaySeconds << Math.min(job.getAttempts() - 1, 16);
+            if (job.getRetryAfter() != null) delay = Math.max(delay, job.getRetryAfter());
+            job.setStatus(AiJob.Status.QUEUED);
+            job.setRunAfter(now.plusSeconds(delay));
+        }
+        return Optional.of(job.getStatus());
+    }
+
+    static boolean isTransient(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof AiUnavailableException || t instanceof IOException || t instanceof InterruptedException) return true;
+        }
+        return false;
+    }
+
+    static String errorCode(Throwable error) {
+        if (error instanceof AiUnavailableException) return ERROR_AI_UNAVAILABLE;
+        if (error instanceof IllegalArgumentException) return ERROR_INVALID_PARAMS;
+        if (error instanceof NotFoundException) return ERROR_NOT_FOUND;
+        return isTransient(error) ? ERROR_UPSTREAM : ERROR_INTERNAL;
+    }
+
+    private static boolean stillClaimed(AiJob job, AiJob claimed) {
+        return job != null && job.getStatus() == AiJob.Status.RUNNING
+                && Objects.equals(job.getLockedBy(), claimed.getLockedBy())
+                && job.getAttempts() == claimed.getAttempts();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<AiJob> find(String jobId) {
+        return jobRepo.findById(jobId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AiJob> findFinished(Collection<String> jobIds) {
+        if (jobIds.isEmpty()) return List.of();
+        return jobRepo.findByIdIn(jobIds).stream().filter(AiJob::isFinished).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public long count(AiJob.Status status) {
+        return jobRepo.countByStatus(status);
+    }
+
+    @Transactional
+    public int purge(AiJob.Status status, Instant finishedBefore) {
+        return jobRepo.deleteFinishedBefore(status, finishedBefore);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> params(AiJob job) {
+        try {
+            return job.getParamsJson() == null ? Map.of() : mapper.readValue(job.getParamsJson(), Map.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable parameters of job " + job.getId(), e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize job data", e);
+        }
+    }
+}
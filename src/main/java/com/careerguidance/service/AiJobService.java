@@ -0,0 +1,259 @@
+package com.careerguidance.service;
+
+import com.careerguidance.exception.AiUnavailableException;
+import com.careerguidance.exception.NotFoundException;
+import com.careerguidance.model.AiJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/*
+ AiJobService: long AI generations (skill gap, mock interview, flashcards, path assessments) as durable background jobs.
+ - submit(...) checks the params (AiGenerationService.validate, 400 when a job could never run), inserts a QUEUED row
+   into ai_jobs (AiJobQueue) and returns at once; with ai.jobs.queue-capacity jobs already waiting it is rejected
+   with AiUnavailableException (503 + Retry-After)
+ - every node polls the table each ai.jobs.poll-interval-ms and claims as many jobs as it has idle workers
+   (ai.jobs.workers, 0 = this node only submits); leases of running jobs are renewed while they run, so only a dead
+   node's jobs are taken over
+ - a worker calls Gemini (AiGenerationService.generate) outside any transaction, then stores the entity and the job
+   result together; transient failures are retried with backoff and end up FAILED (dead letter) after
+   ai.jobs.max-attempts, other failures at once. Clients see an error code, never the raw message
+ - clients poll find(...) or subscribe(...); subscribers are called back when the job finishes on any node
+ - SUCCEEDED jobs are deleted ai.jobs.retention-minutes after they finished, dead letters after
+   ai.jobs.dead-letter-retention-hours
+ - ai.jobs.wait (submitted/retried -> claimed) and ai.jobs.run timers per type (AiMetrics); queue depth, running and
+   dead-lettered jobs (counted at each poll / purge) are gauges from stats() (MetricsConfig)
+*/
+
+@Service
+public class AiJobService {
+
+    private static final Logger LOGGER = Logger.getLogger(AiJobService.class.getName());
+
+    private final AiJobQueue queue;
+    private final AiGenerationService generation;
+    private final AiMetrics metrics;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final int workerCount;
+    private final ThreadPoolExecutor workers;
+    private final String workerId;
+    private final long queueCapacity;
+    private final Duration retention;
+    private final Duration deadLetterRetention;
+    private final long retryAfterSeconds;
+
+    private final Map<String, AiJob> running = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<AiJob>>> subscribers = new ConcurrentHashMap<>();
+    private volatile Instant leasesRenewedAt = Instant.now();
+    private volatile long queued;
+    private volatile long deadLettered;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+
+    public AiJobService(AiJobQueue queue,
+                        AiGenerationService generation,
+                        AiMetrics metrics,
+                        @Value("${ai.jobs.workers:4}") int workers,
+                        @Value("${ai.jobs.queue-capacity:200}") long queueCapacity,
+                        @Value("${ai.jobs.retention-minutes:60}") long retentionMinutes,
+                        @Value("${ai.jobs.dead-letter-retention-hours:168}") long deadLetterRetentionHours,
+                        @Value("${ai.upstream.retry-after-seconds:2}") long retryAfterSeconds) {
+        this.queue = queue;
+        this.generation = generation;
+        this.metrics = metrics;
+        this.workerCount = Math.max(0, workers);
+        this.workers = new ThreadPoolExecutor(Math.max(1, workerCount), Math.max(1, workerCount), 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("ai-job-"));
+        this.workerId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.queueCapacity = queueCapacity;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.deadLetterRetention = Duration.ofHours(deadLetterRetentionHours);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public AiJob submit(Long userId, String type, Map<String, Object> params) {
+        AiGenerationService.validate(type, params);
+        if (queue.count(AiJob.Status.QUEUED) >= queueCapacity) {
+            rejected.incrementAndGet();
+            throw new AiUnavailableException("Too many AI jobs queued, please try again shortly", retryAfterSeconds);
+        }
+        AiJob job = queue.enqueue(userId, type, params);
+        submitted.incrementAndGet();
+        return job;
+    }
+
+    /** The user's job; jobs of other users are reported as missing. */
+    public AiJob find(Long userId, String jobId) {
+        AiJob job = queue.find(jobId).orElse(null);
+        if (job == null || !Objects.equals(job.getUserId(), userId)) throw new NotFoundException("Job not found");
+        return job;
+    }
+
+    /** Calls listener once the job has finished - right away if it already has. */
+    public void subscribe(AiJob job, Consumer<AiJob> listener) {
+        if (job.isFinished()) {
+            listener.accept(job);
+            return;
+        }
+        subscribers.computeIfAbsent(job.getId(), k -> new CopyOnWriteArrayList<>()).add(listener);
+        // it may have finished between the read and the registration
+        queue.findFinished(List.of(job.getId())).forEach(this::notifySubscribers);
+    }
+
+    @Scheduled(fixedDelayString = "${ai.jobs.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            renewLeases();
+            queued = queue.count(AiJob.Status.QUEUED);
+            int idle = workerCount - running.size();
+            if (idle <= 0) return;
+            for (AiJob job : queue.claim(workerId, idle)) {
+                running.put(job.getId(), job);
+                workers.execute(() -> run(job));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warning("Polling ai_jobs failed: " + e.getMessage());
+        }
+    }
+
+    private void renewLeases() {
+        Instant now = Instant.now();
+        if (Duration.between(leasesRenewedAt, now).compareTo(queue.getVisibilityTimeout().dividedBy(3)) < 0) return;
+        queue.extendLeases(workerId, running.keySet());
+        leasesRenewedAt = now;
+    }
+
+    @Scheduled(fixedDelayString = "${ai.jobs.poll-interval-ms:1000}")
+    public void pollSubscribed() {
+        if (subscribers.isEmpty()) return;
+        try {
+            queue.findFinished(subscribers.keySet()).forEach(this::notifySubscribers);
+        } catch (RuntimeException e) {
+            LOGGER.warning("Polling subscribed ai_jobs failed: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ai.jobs.purge-interval-ms:60000}")
+    public void purge() {
+        try {
+            Instant now = Instant.now();
+            queue.purge(AiJob.Status.SUCCEEDED, now.minus(retention));
+            queue.purge(AiJob.Status.FAILED, now.minus(deadLetterRetention));
+            deadLettered = queue.count(AiJob.Status.FAILED);
+        } catch (RuntimeException e) {
+            LOGGER.warning("Purging ai_jobs failed: " + e.getMessage());
+        }
+    }
+
+    // jobs interrupted here keep their lease until it expires and are then claimed again (by any node)
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void run(AiJob job) {
+        Instant started = job.getStartedAt();
+        Instant due = job.getRunAfter() != null ? job.getRunAfter() : job.getCreatedAt();
+        metrics.recordJobWait(job.getType(), Math.max(0, Duration.between(due, started).toNanos()));
+        String outcome;
+        try {
+            Map<String, Object> params = queue.params(job);
+            var result = generation.generate(job.getType(), job.getUserId(), params);
+            boolean stored = queue.complete(job, () -> generation.store(job.getType(), job.getUserId(), params, result));
+            outcome = stored ? "success" : "lost";
+        } catch (RuntimeException e) {
+            LOGGER.warning("AI job " + job.getId() + " (" + job.getType() + ", attempt " + job.getAttempts() + ") failed: " + e.getMessage());
+            outcome = queue.fail(job, e)
+                    .map(status -> status == AiJob.Status.FAILED ? "dead-letter" : "retry")
+                    .orElse("lost");
+        } finally {
+            running.remove(job.getId());
+        }
+        metrics.recordJobRun(job.getType(), outcome, Duration.between(started, Instant.now()).toNanos());
+        switch (outcome) {
+            case "success" -> succeeded.incrementAndGet();
+            case "retry" -> retried.incrementAndGet();
+            case "dead-letter" -> failed.incrementAndGet();
+            default -> lost.incrementAndGet();
+        }
+        if (subscribers.containsKey(job.getId())) queue.findFinished(List.of(job.getId())).forEach(this::notifySubscribers);
+    }
+
+    private void notifySubscribers(AiJob job) {
+        List<Consumer<AiJob>> listeners = subscribers.remove(job.getId());
+        if (listeners == null) return;
+        for (Consumer<AiJob> listener : listeners) {
+            try {
+                listener.accept(job);
+            } catch (RuntimeException e) {
+                LOGGER.fine("Job listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Response body of GET /api/ai/jobs/{id}; "result" is the body the synchronous endpoint returns. */
+    public Map<String, Object> view(AiJob job) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("jobId", job.getId());
+        m.put("type", job.getType());
+        m.put("status", job.getStatus().name());
+        m.put("attempts", job.getAttempts());
+        m.put("createdAt", job.getCreatedAt());
+        m.put("startedAt", job.getStartedAt());
+        m.put("finishedAt", job.getFinishedAt());
+        if (job.getResultJson() != null) {
+            try {
+                m.put("result", mapper.readTree(job.getResultJson()));
+            } catch (Exception e) {
+                LOGGER.warning("Stored result of job " + job.getId() + " is unreadable");
+            }
+        }
+        // the raw message may carry upstream or SQL details: it stays in the row and the log
+        if (job.getErrorCode() != null) m.put("error", job.getErrorCode());
+        else if (job.getLastError() != null) m.put("error", AiJobQueue.ERROR_INTERNAL); // failed before error codes
+        if (job.getRetryAfter() != null) m.put("retryAfter", job.getRetryAfter());
+        return m;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("worker", workerId);
+        m.put("workers", workerCount);
+        m.put("queued", queued);
+        m.put("running", running.size());
+        m.put("deadLettered", deadLettered);
+        m.put("submitted", submitted.get());
+        m.put("rejected", rejected.get());
+        m.put("succeeded", succeeded.get());
+        m.put("retried", retried.get());
+        m.put("failed", failed.get());
+        m.put("lost", lost.get());
+        return m;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.careerguidance.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ AiMetrics: Micrometer meters for AI operations, tagged by operation ("chat", "explain", "learning-path", ...).
+ - ai.operation: end-to-end time of an AiService call, tagged with where the answer came from
+   (cache = hit | miss | bypass | uncached) and outcome
+ - ai.upstream.requests: time of each Gemini HTTP call, tagged with mode (generate | stream) and the HTTP status
+   ("IO_ERROR" when no response arrived, "CANCELLED" for a losing hedge or an attempt cut off at the deadline)
+ - ai.prompt.size / ai.response.size: characters sent and received per upstream call
+ - ai.response.parse.failures: replies that could not be read (stage = envelope | json)
+ - ai.jobs.wait / ai.jobs.run: time background jobs spent queued and running, per job type (AiJobService);
+   run outcome = success | retry | dead-letter | lost (claim taken over by another worker)
+ - ai.retries / ai.hedges / ai.deadline.exceeded: work of AiCallPolicy (hedge outcome = started | primary-won | hedge-won)
+*/
+
+@Component
+public class AiMetrics {
+
+    private final MeterRegistry registry;
+
+    public AiMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void recordOperation(String operation, String cache, boolean success, long nanos) {
+        Timer.builder("ai.operation")
+                .description("AiService call, including cache and coalescing")
+                .tags("operation", operation, "cache", cache, "outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUpstream(String operation, String mode, String status, long nanos) {
+        Timer.builder("ai.upstream.requests")
+                .description("Gemini HTTP calls")
+                .tags("operation", operation, "mode", mode, "status", status)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPromptSize(String operation, int chars) {
+        DistributionSummary.builder("ai.prompt.size")
+                .baseUnit("chars")
+                .tag("operation", operation)
+                .register(registry)
+                .record(chars);
+    }
+
+    public void recordResponseSize(String operation, int chars) {
+        DistributionSummary.builder("ai.response.size")
+                .baseUnit("chars")
+                .tag("operation", operation)
+                .register(registry)
+                .record(chars);
+    }
+
+    public void recordJobWait(String type, long nanos) {
+        Timer.builder("ai.jobs.wait")
+                .description("Time from submission until a worker picked the job up")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordJobRun(String type, String outcome, long nanos) {
+        Timer.builder("ai.jobs.run")
+                .description("Time a worker spent on the job, generation and persistence")
+                .tags("type", type, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void retry(String operation) {
+        Counter.builder("ai.retries")
+                .description("Upstream attempts repeated after an overload failure")
+                .tag("operation", operation)
+                .register(registry)
+                .increment();
+    }
+
+    public void hedge(String operation, String outcome) {
+        Counter.builder("ai.hedges")
+                .tags("operation", operation, "outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    public void deadlineExceeded(String operation) {
+        Counter.builder("ai.deadline.exceeded")
+                .tag("operation", operation)
+                .register(registry)
+                .increment();
+    }
+
+    public void parseFailure(String operation, String stage) {
+        Counter.builder("ai.response.parse.failures")
+                .tags("operation", operation, "stage", stage)
+                .register(registry)
+                .increment();
+    }
+}
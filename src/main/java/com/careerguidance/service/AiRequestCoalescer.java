@@ -0,0 +1,76 @@
+package com.careerguidance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ AiRequestCoalescer: single-flight for identical in-flight Gemini prompts.
+ - the first caller for a key (leader) performs the upstream call
+ - concurrent callers with the same key wait on the leader's future and share its result (or failure, Errors included)
+ - the key is removed as soon as the leader finishes, so nothing is cached here (see AiResponseCache)
+*/
+
+@Component
+public class AiRequestCoalescer {
+
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, CompletableFuture<JsonNode>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public AiRequestCoalescer(@Value("${ai.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public JsonNode execute(String key, Supplier<JsonNode> call) {
+        if (!enabled) return call.get();
+
+        CompletableFuture<JsonNode> mine = new CompletableFuture<>();
+        CompletableFuture<JsonNode> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing).deepCopy();
+        }
+
+        leaders.incrementAndGet();
+        try {
+            JsonNode result = call.get();
+            mine.complete(result);
+            return result.deepCopy();
+        } catch (Throwable e) {
+            // any failure, Errors included, must reach the followers or they wait in join() forever
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "enabled", enabled,
+                "inFlight", inFlight.size(),
+                "leaders", leaders.get(),
+                "coalesced", coalesced.get()
+        );
+    }
+
+    private static JsonNode await(CompletableFuture<JsonNode> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.careerguidance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ AiResponseCache: content-addressed cache for Gemini responses.
+ - key = sha256(model + response mode + normalized prompt), so identical prompts share one entry
+ - TTL per operation from ai.cache.ttl.<operation> (seconds); 0 disables caching for that operation
+ - bounded by ai.cache.max-entries, least recently used entry is evicted first
+*/
+
+@Component
+public class AiResponseCache {
+
+    private final Environment env;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long defaultTtlSeconds;
+
+    private final Map<String, Long> ttlByOperation = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bypasses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    private record Entry(JsonNode value, long expiresAt) {}
+
+    public AiResponseCache(Environment env,
+                           @Value("${ai.cache.enabled:true}") boolean enabled,
+                           @Value("${ai.cache.max-entries:1000}") int maxEntries,
+                           @Value("${ai.cache.ttl.default:0}") long defaultTtlSeconds) {
+        this.env = env;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > AiResponseCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static String key(String model, boolean expectJson, String prompt) {
+        String normalized = prompt == null ? "" : prompt.trim().replaceAll("\\s+", " ");
+        String material = model + "\n" + (expectJson ? "json" : "text") + "\n" + normalized;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** True when responses of this operation may be served from / stored into the cache. */
+    public boolean isCacheable(String operation) {
+        return enabled && ttlSeconds(operation) > 0;
+    }
+
+    public JsonNode get(String key) {
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            if (e == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (e.expiresAt() <= System.currentTimeMillis()) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return e.value().deepCopy();
+        }
+    }
+
+    public void put(String operation, String key, JsonNode value) {
+        long expiresAt = System.currentTimeMillis() + ttlSeconds(operation) * 1000L;
+        synchronized (entries) {
+            entries.put(key, new Entry(value.deepCopy(), expiresAt));
+        }
+    }
+
+    /** Records a caller that explicitly asked for a fresh upstream response. */
+    public void recordBypass() {
+        bypasses.incrementAndGet();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long h = hits.get(), m = misses.get();
+        return Map.of(
+                "enabled", enabled,
+                "size", size,
+                "maxEntries", maxEntries,
+                "hits", h,
+                "misses", m,
+                "hitRatio", (h + m) == 0 ? 0.0 : (double) h / (h + m),
+                "bypasses", bypasses.get(),
+                "evictions", evictions.get(),
+                "expirations", expirations.get()
+        );
+    }
+
+    private long ttlSeconds(String operation) {
+        return ttlByOperation.computeIfAbsent(operation,
+                op -> env.getProperty("ai.cache.ttl." + op, Long.class, defaultTtlSeconds));
+    }
+}
@@ -1,137 +1,255 @@
 package com.careerguidance.service;
 
+import com.careerguidance.exception.AiUnavailableException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /*
- AiService: keeps Gemini REST wiring.
+ AiService: prompts for every AI feature; the Gemini REST wiring lives in GeminiClient.
  - generateAssessment now produces 10 questions.
  - callGemini(...) unchanged in core behavior (returns text or parsed JSON when expectJson true)
+ - responses of deterministic operations are served from AiResponseCache; pass bypassCache=true to force a fresh call
+ - identical prompts already in flight are coalesced into one upstream call (AiRequestCoalescer)
+ - generated assessments carry their answer key, so they are never cached or coalesced: each user gets a fresh call
+ - streamChatTutor(...) uses streamGenerateContent and hands each text delta to the caller as it arrives
+ - every upstream call passes AiCircuitBreaker and holds a slot of the adaptive AiConcurrencyLimiter while in flight;
+   both fail fast with AiUnavailableException (503 + Retry-After) instead of queueing without bound
+ - AiCallPolicy retries overload failures with jittered backoff, hedges slow explain/resources calls and bounds each
+   call by ai.deadline-ms; every retry and hedge passes the breaker and limiter again
+ - chat prompts carry the session's rolling summary plus a bounded tail of recent messages (ChatContextBuilder)
+ - every call is timed per operation and cache outcome (AiMetrics, ai.operation)
 */
 
 @Service
 public class AiService {
 
-    private final RestTemplate rest = new RestTemplate();
-    private final ObjectMapper mapper = new ObjectMapper();
-
-    @Value("${ai.gemini.model:gemini-1.5-flash}")
-    private String model;
-
-    @Value("${ai.gemini.apiKey:}")
-    private String apiKey;
+    private final GeminiClient gemini;
+    private final AiResponseCache cache;
+    private final AiRequestCoalescer coalescer;
+    private final AiConcurrencyLimiter limiter;
+    private final AiCircuitBreaker breaker;
+    private final AiCallPolicy policy;
+    private final AiMetrics metrics;
+
+    // responses that hold an answer key for one user; sharing them would hand one user's answers to another
+    private static final Set<String> PER_USER_OPERATIONS = Set.of("assessment", "assessment-batch");
+
+    @Value("${ai.upstream.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    public AiService(GeminiClient gemini, AiResponseCache cache, AiRequestCoalescer coalescer, AiConcurrencyLimiter limiter,
+                     AiCircuitBreaker breaker, AiCallPolicy policy, AiMetrics metrics) {
+        this.gemini = gemini;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.limiter = limiter;
+        this.breaker = breaker;
+        this.policy = policy;
+        this.metrics = metrics;
+    }
 
-    private String endpoint() {
-        return "https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent?key=" + apiKey;
+    private JsonNode callGemini(String operation, String prompt, boolean expectJson) {
+        return callGemini(operation, prompt, expectJson, false);
     }
 
-    private JsonNode callGemini(String prompt, boolean expectJson) {
+    private JsonNode callGemini(String operation, String prompt, boolean expectJson, boolean bypassCache) {
+        long start = System.nanoTime();
+        String cacheState = "uncached";
+        boolean success = false;
         try {
-            Map<String, Object> generationConfig = expectJson
-                    ? Map.of("responseMimeType", "application/json")
-                    : Map.of();
-
-            Map<String, Object> payload = Map.of(
-                    "contents", List.of(Map.of("parts", List.of(Map.of("text", prompt)))) ,
-                    "generationConfig", generationConfig
-            );
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            ResponseEntity<String> resp = rest.exchange(
-                    endpoint(), HttpMethod.POST, new HttpEntity<>(payload, headers), String.class);
-
-            if (!resp.getStatusCode().is2xxSuccessful()) {
-                throw new RuntimeException("Gemini error: " + resp.getStatusCode());
-            }
-
-            JsonNode root = mapper.readTree(resp.getBody());
-            JsonNode candidates = root.path("candidates");
-            if (candidates.isArray() && candidates.size() > 0) {
-                JsonNode textNode = candidates.get(0).path("content").path("parts").get(0).path("text");
-                if (textNode.isMissingNode()) throw new RuntimeException("Gemini: no text part");
-                String text = textNode.asText();
-                if (expectJson) {
-                    return mapper.readTree(text);
+            String key = AiResponseCache.key(gemini.getModel(), expectJson, prompt);
+            JsonNode result;
+            if (PER_USER_OPERATIONS.contains(operation)) {
+                result = callUpstream(operation, prompt, expectJson);
+            } else if (!cache.isCacheable(operation)) {
+                result = coalescer.execute(key, () -> callUpstream(operation, prompt, expectJson));
+            } else if (bypassCache) {
+                cacheState = "bypass";
+                cache.recordBypass();
+                // fresh calls get their own flight so they never receive a response started before the bypass
+                result = callUpstream(operation, prompt, expectJson);
+                cache.put(operation, key, result);
+            } else {
+                result = cache.get(key);
+                cacheState = result != null ? "hit" : "miss";
+                if (result == null) {
+                    result = coalescer.execute(key, () -> {
+                        JsonNode fresh = callUpstream(operation, prompt, expectJson);
+                        cache.put(operation, key, fresh);
+                        return fresh;
+                    });
                 }
-                return mapper.createObjectNode().put("text", text);
             }
-            throw new RuntimeException("Gemini: unexpected response");
-        } catch (Exception e) {
-            throw new RuntimeException("Gemini call failed: " + e.getMessage(), e);
+            success = true;
+            return result;
+        } finally {
+            metrics.recordOperation(operation, cacheState, success, System.nanoTime() - start);
         }
     }
 
+    private JsonNode callUpstream(String operation, String prompt, boolean expectJson) {
+        try {
+            return policy.call(operation, () -> breaker.call(() -> limiter.call(() -> gemini.generate(operation, prompt, expectJson))));
+        } catch (RuntimeException e) {
+            throw unavailableIfOverloaded(e);
+        }
+    }
+
+    // 429/5xx/timeouts are Gemini's trouble, not the caller's: answer 503 + Retry-After rather than 400
+    private RuntimeException unavailableIfOverloaded(RuntimeException e) {
+        if (e instanceof AiUnavailableException || !GeminiClient.isOverload(e)) return e;
+        return new AiUnavailableException("AI service is unavailable, please try again shortly", retryAfterSeconds, e);
+    }
+
     public JsonNode generateLearningPath(String domain) {
+        return generateLearningPath(domain, false);
+    }
+
+    public JsonNode generateLearningPath(String domain, boolean bypassCache) {
         String prompt = "Create a detailed, structured learning path for a beginner in \"" + domain + "\". " +
                 "Return a JSON array; each item: {\"topic\":\"...\",\"duration\":<days>} ";
-        return callGemini(prompt, true);
+        return callGemini("learning-path", prompt, true, bypassCache);
     }
 
     public JsonNode generateAssessment(String topic) {
         String prompt = "Create a comprehensive assessment with 10 multiple-choice questions for the topic \"" + topic + "\". " +
                 "Each question should have 4 options (A,B,C,D) and one correct answer. Return JSON array: " +
                 "{\"question\":..., \"options\":{\"A\":\"...\",\"B\":\"...\",\"C\":\"...\",\"D\":\"...\"}, \"answer\":\"A|B|C|D\" }";
-        return callGemini(prompt, true);
+        return callGemini("assessment", prompt, true);
+    }
+
+    /**
+     * One prompt for several topics: returns [{"topic": "...", "questions": [ same shape as generateAssessment ]}, ...].
+     */
+    public JsonNode generateAssessmentsBatch(List<String> topics) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Create assessments for each of the following topics. For every topic write 10 multiple-choice questions, ")
+                .append("each with 4 options (A,B,C,D) and one correct answer.\nTopics:\n");
+        for (String topic : topics) {
+            sb.append("- ").append(topic).append("\n");
+        }
+        sb.append("Return a JSON array with one element per topic, using the topic text exactly as given: ")
+                .append("[{\"topic\":\"...\", \"questions\":[{\"question\":..., \"options\":{\"A\":\"...\",\"B\":\"...\",\"C\":\"...\",\"D\":\"...\"}, \"answer\":\"A|B|C|D\" }]}]");
+        return callGemini("assessment-batch", sb.toString(), true);
     }
 
     public JsonNode evaluateAssessment(String topic, String submissionJson) {
         String prompt = "You are an expert evaluator. Topic: \"" + topic + "\". User submission JSON: " + submissionJson + ". " +
                 "Return JSON {\"score\": number, \"outOf\": number, \"percentage\": number, \"evaluation\": [{\"question\":..., \"correctAnswer\":..., \"userAnswer\":..., \"isCorrect\":true|false}, ...] }";
-        return callGemini(prompt, true);
+        return callGemini("evaluate-assessment", prompt, true);
+    }
+
+    public String assessmentFeedback(String topic, String gradedJson) {
+        String prompt = "A learner took a multiple-choice assessment on \"" + topic + "\". Graded result JSON: " + gradedJson + ". " +
+                "Write 2-3 short, encouraging sentences of feedback: what they understand well and what to review next.";
+        return callGemini("assessment-feedback", prompt, false).path("text").asText();
     }
 
     public String explainTopic(String domain, String topic) {
+        return explainTopic(domain, topic, false);
+    }
+
+    public String explainTopic(String domain, String topic, boolean bypassCache) {
         String prompt = "Explain \"" + topic + "\" for a beginner in " + domain + ". Keep it concise and clear in 3 short paragraphs.";
-        return callGemini(prompt, false).path("text").asText();
+        return callGemini("explain", prompt, false, bypassCache).path("text").asText();
     }
 
     public JsonNode suggestResources(String topic) {
+        return suggestResources(topic, false);
+    }
+
+    public JsonNode suggestResources(String topic, boolean bypassCache) {
         String prompt = "Suggest 3 high-quality resources for \"" + topic + "\". Return JSON array [{\"title\":\"...\",\"type\":\"(article/course/video)\",\"url\":\"...\",\"description\":\"...\"}] - include a url if possible.";
-        return callGemini(prompt, true);
+        return callGemini("resources", prompt, true, bypassCache);
     }
 
     public JsonNode regenerateSchedule(List<String> remainingTopics) {
         String prompt = "I have remaining topics: " + remainingTopics + ". Create a schedule starting today and return JSON array [{\"topic\":\"...\",\"duration\":<days>}].";
-        return callGemini(prompt, true);
+        return callGemini("regenerate-schedule", prompt, true);
+    }
+
+    private String streamUpstream(String operation, String prompt, Consumer<String> onToken) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            String reply = policy.callStream(operation, onToken,
+                    tokens -> breaker.call(() -> limiter.call(() -> gemini.stream(operation, prompt, tokens))));
+            success = true;
+            return reply;
+        } catch (RuntimeException e) {
+            throw unavailableIfOverloaded(e);
+        } finally {
+            metrics.recordOperation(operation, "uncached", success, System.nanoTime() - start);
+        }
     }
 
-    public String chatTutor(List<Map<String, String>> messages) {
+    private String tutorPrompt(String summary, List<Map<String, String>> messages) {
         StringBuilder sb = new StringBuilder();
         sb.append("You are a helpful study tutor. Keep responses friendly and brief.\n");
+        if (summary != null && !summary.isBlank()) {
+            sb.append("Summary of the earlier conversation: ").append(summary).append("\n");
+        }
         for (Map<String, String> m : messages) {
             sb.append(m.getOrDefault("role", "user")).append(": ").append(m.getOrDefault("content", "")).append("\n");
         }
         sb.append("Assistant:");
-        return callGemini(sb.toString(), false).path("text").asText();
+        return sb.toString();
+    }
+
+    public String chatTutor(String summary, List<Map<String, String>> messages) {
+        return callGemini("chat", tutorPrompt(summary, messages), false).path("text").asText();
+    }
+
+    public String streamChatTutor(String summary, List<Map<String, String>> messages, Consumer<String> onToken) {
+        return streamUpstream("chat-stream", tutorPrompt(summary, messages), onToken);
+    }
+
+    /** Folds older chat messages into the session's running summary; returns the updated summary text. */
+    public String summarizeConversation(String previousSummary, List<Map<String, String>> messages, int maxWords) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("You maintain the running summary of a tutoring conversation. Merge the new messages into the ")
+                .append("current summary. Keep the learner's goals, level, topics covered, decisions and open questions; ")
+                .append("drop small talk. At most ").append(maxWords).append(" words. Return only the updated summary.\n")
+                .append("Current summary: ").append(previousSummary == null || previousSummary.isBlank() ? "(none)" : previousSummary)
+                .append("\nNew messages:\n");
+        for (Map<String, String> m : messages) {
+            sb.append(m.getOrDefault("role", "user")).append(": ").append(m.getOrDefault("content", "")).append("\n");
+        }
+        return callGemini("chat-summary", sb.toString(), false).path("text").asText();
     }
 
     public JsonNode analyzeSkillGap(String resumeText, String targetRole) {
         String prompt = "You are a career analyst. User resume: " + resumeText + ". Target role: " + targetRole + ". " +
                 "Return JSON {\"missingSkills\":[{\"skill\":\"...\",\"importance\":\"high|medium|low\",\"suggestedResources\":[{\"title\":\"...\",\"url\":\"...\"}]}], \"recommendedPath\":[{\"topic\":\"...\",\"duration\":days}]}";
-        return callGemini(prompt, true);
+        return callGemini("skill-gap", prompt, true);
     }
 
     public JsonNode generateMockInterview(String targetRole, int rounds) {
         String prompt = "Generate " + rounds + " interview questions for role: " + targetRole + ". For each: {question, difficulty: 'easy'|'medium'|'hard', followups:[...]} Return JSON array.";
-        return callGemini(prompt, true);
+        return callGemini("mock-interview", prompt, true);
     }
 
     public JsonNode generateFlashcards(String topic, int count) {
+        return generateFlashcards(topic, count, false);
+    }
+
+    public JsonNode generateFlashcards(String topic, int count, boolean bypassCache) {
         String prompt = "Create " + count + " flashcards for topic \"" + topic + "\". Return JSON array [{\"q\":\"...\",\"a\":\"...\"}].";
-        return callGemini(prompt, true);
+        return callGemini("flashcards", prompt, true, bypassCache);
     }
 
     public JsonNode generateCodingExercise(String topic) {
+        return generateCodingExercise(topic, false);
+    }
+
+    public JsonNode generateCodingExercise(String topic, boolean bypassCache) {
         String prompt = "Generate a coding exercise suitable for interview practice about \"" + topic + "\". Return JSON {\"title\",\"description\",\"functionSignature\",\"language\":\"java|python|js\",\"testcases\":[{\"input\":\"...\",\"output\":\"...\"}]}";
-        return callGemini(prompt, true);
+        return callGemini("coding-exercise", prompt, true, bypassCache);
     }
 }
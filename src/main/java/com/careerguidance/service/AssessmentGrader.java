@@ -0,0 +1,163 @@
+package com.careerguidance.service;
+
+import com.careerguidance.dto.AssessmentSubmission;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/*
+ AssessmentGrader: scores multiple-choice submissions locally against an answer key.
+ - key = the stored assessment JSON [{question, options:{A..D}, answer}]
+ - answers are matched to key questions by question text, falling back to position; each question is answered once
+ - an answer is matched against the option texts before it is read as a letter
+ - result has the same shape the LLM evaluator returned: {score, outOf, percentage, evaluation[]}
+*/
+
+@Component
+public class AssessmentGrader {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public JsonNode grade(JsonNode answerKey, List<AssessmentSubmission.Answer> answers) {
+        Map<String, Integer> byQuestion = new HashMap<>();
+        for (int i = 0; i < answerKey.size(); i++) {
+            byQuestion.putIfAbsent(normalize(answerKey.get(i).path("question").asText("")), i);
+        }
+        // answers naming a key question claim its slot first; the others take their position if it is still free.
+        // a slot is filled once: later answers for it (repeated questions, positions already named) are skipped
+        Integer[] slotOf = new Integer[answers.size()];
+        boolean[] named = new boolean[answers.size()];
+        boolean[] taken = new boolean[answerKey.size()];
+        for (int i = 0; i < answers.size(); i++) {
+            String question = answers.get(i).getQuestion();
+            Integer idx = question == null ? null : byQuestion.get(normalize(question));
+            if (idx == null) continue;
+            named[i] = true;
+            if (taken[idx]) continue;
+            taken[idx] = true;
+            slotOf[i] = idx;
+        }
+        for (int i = 0; i < answers.size() && i < answerKey.size(); i++) {
+            if (named[i] || taken[i]) continue;
+            taken[i] = true;
+            slotOf[i] = i;
+        }
+
+        String[] userLetters = new String[answerKey.size()];
+        String[] userRaw = new String[answerKey.size()];
+        for (int i = 0; i < answers.size(); i++) {
+            Integer idx = slotOf[i];
+            if (idx == null) continue;
+            userRaw[idx] = answers.get(i).getUserAnswer();
+            userLetters[idx] = toLetter(answers.get(i).getUserAnswer(), answerKey.get(idx).path("options"));
+        }
+
+        int score = 0;
+        ArrayNode evaluation = mapper.createArrayNode();
+        for (int i = 0; i < answerKey.size(); i++) {
+            JsonNode q = answerKey.get(i);
+            String correct = toLetter(q.path("answer").asText(""), q.path("options"));
+            boolean isCorrect = correct != null && correct.equals(userLetters[i]);
+            if (isCorrect) score++;
+            ObjectNode e = evaluation.addObject();
+            e.put("question", q.path("question").asText(""));
+            e.put("correctAnswer", correct);
+            e.put("userAnswer", userRaw[i]);
+            e.put("isCorrect", isCorrect);
+        }
+        return result(score, answerKey.size(), evaluation);
+    }
+
+    /** Grades with the correctAnswer carried by each submitted answer (when no stored key exists). */
+    public JsonNode gradeSelfKeyed(List<AssessmentSubmission.Answer> answers) {
+        int score = 0;
+        ArrayNode evaluation = mapper.createArrayNode();
+        for (AssessmentSubmission.Answer a : answers) {
+            String correct = toLetter(a.getCorrectAnswer(), null);
+            boolean isCorrect = correct != null && correct.equals(toLetter(a.getUserAnswer(), null));
+            if (isCorrect) score++;
+            ObjectNode e = evaluation.addObject();
+            e.put("question", a.getQuestion());
+            e.put("correctAnswer", a.getCorrectAnswer());
+            e.put("userAnswer", a.getUserAnswer());
+            e.put("isCorrect", isCorrect);
+        }
+        return result(score, answers.size(), evaluation);
+    }
+
+    public static boolean hasAnswerKey(List<AssessmentSubmission.Answer> answers) {
+        return !answers.isEmpty() && answers.stream().allMatch(a -> a.getCorrectAnswer() != null && !a.getCorrectAnswer().isBlank());
+    }
+
+    // Passing criteria: 7 correct out of 10 (or >=70% if different count)
+    public static boolean passed(int score, int outOf) {
+        if (outOf >= 10) return score >= 7;
+        double pct = outOf == 0 ? 0.0 : (100.0 * score / outOf);
+        return pct >= 70.0;
+    }
+
+    /**
+     * Accepts the shapes clients send as submissionJson: an array of answer objects
+     * ({question, userAnswer|answer|selected, correctAnswer}), an array of letters in question order,
+     * or an object with an "answers" array.
+     */
+    public List<AssessmentSubmission.Answer> parseSubmission(String submissionJson) {
+        List<AssessmentSubmission.Answer> out = new ArrayList<>();
+        JsonNode root;
+        try {
+            root = mapper.readTree(submissionJson == null ? "[]" : submissionJson);
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid submission JSON: " + e.getMessage());
+        }
+        if (root.has("answers")) root = root.path("answers");
+        for (JsonNode n : root) {
+            AssessmentSubmission.Answer a = new AssessmentSubmission.Answer();
+            if (n.isObject()) {
+                a.setQuestion(n.hasNonNull("question") ? n.get("question").asText() : null);
+                a.setCorrectAnswer(n.hasNonNull("correctAnswer") ? n.get("correctAnswer").asText() : null);
+                JsonNode user = n.hasNonNull("userAnswer") ? n.get("userAnswer")
+                        : n.hasNonNull("answer") ? n.get("answer") : n.path("selected");
+                a.setUserAnswer(user.isMissingNode() || user.isNull() ? null : user.asText());
+            } else {
+                a.setUserAnswer(n.isNull() ? null : n.asText());
+            }
+            out.add(a);
+        }
+        return out;
+    }
+
+    private JsonNode result(int score, int outOf, ArrayNode evaluation) {
+        ObjectNode result = mapper.createObjectNode();
+        result.put("score", score);
+        result.put("outOf", outOf);
+        result.put("percentage", outOf == 0 ? 0.0 : Math.round(1000.0 * score / outOf) / 10.0);
+        result.set("evaluation", evaluation);
+        return result;
+    }
+
+    // option text first ("A stack", "B-tree" and "C++" are texts, not letters), then "B", "b", "B) text", "B. text" -> "B"
+    private static String toLetter(String answer, JsonNode options) {
+        if (answer == null) return null;
+        String a = answer.trim();
+        if (a.isEmpty()) return null;
+        if (options != null) {
+            String text = normalize(a);
+            for (Map.Entry<String, JsonNode> opt : options.properties()) {
+                if (normalize(opt.getValue().asText("")).equals(text)) return opt.getKey().toUpperCase();
+            }
+        }
+        char c = Character.toUpperCase(a.charAt(0));
+        if (c >= 'A' && c <= 'D' && (a.length() == 1 || !Character.isLetterOrDigit(a.charAt(1)))) {
+            return String.valueOf(c);
+        }
+        return a.toUpperCase();
+    }
+
+    private static String normalize(String s) {
+        return s.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+}
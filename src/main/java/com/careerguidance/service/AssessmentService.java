@@ -0,0 +1,199 @@
+package com.careerguidance.service;
+
+import com.careerguidance.dto.AssessmentSubmission;
+import com.careerguidance.model.AssessmentRecord;
+import com.careerguidance.model.LearningPath;
+import com.careerguidance.model.PathItem;
+import com.careerguidance.repository.AssessmentRepository;
+import com.careerguidance.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/*
+ AssessmentService: assessments for learning path topics.
+ - scheduleForPath(...) queues a durable "path-assessments" job (AiJobService) that pre-generates assessments for
+   every topic of a path, packing as many topics into one Gemini prompt as ai.assessment-batch.max-output-tokens allows
+ - assessmentFor(...) serves the stored assessment (a DB read); it only calls Gemini when none exists yet
+ - grade(...) scores answers locally against the stored answer key (AssessmentGrader); Gemini is only used
+   for optional feedback, or when neither a stored key nor a client-supplied key is available
+*/
+
+@Service
+public class AssessmentService {
+
+    private static final Logger LOGGER = Logger.getLogger(AssessmentService.class.getName());
+
+    // rough output size of one 10-question assessment
+    private static final int TOKENS_PER_TOPIC = 1200;
+
+    private final AiService ai;
+    private final AssessmentGrader grader;
+    private final AssessmentRepository assessmentRepo;
+    private final UserRepository userRepo;
+    private final ObjectProvider<AiJobService> jobs; // provider: the job service runs generateForPath, so it depends on us
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${ai.assessment-batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${ai.assessment-batch.max-output-tokens:8000}")
+    private int maxOutputTokens;
+
+    public AssessmentService(AiService ai,
+                             AssessmentGrader grader,
+                             AssessmentRepository assessmentRepo,
+                             UserRepository userRepo,
+                             ObjectProvider<AiJobService> jobs) {
+        this.ai = ai;
+        this.grader = grader;
+        this.assessmentRepo = assessmentRepo;
+        this.userRepo = userRepo;
+        this.jobs = jobs;
+    }
+
+    /** Queues background generation for every topic of the path that has no stored assessment yet. */
+    public void scheduleForPath(LearningPath lp) {
+        if (!batchEnabled) return;
+        Long pathId = lp.getId();
+        Long userId = lp.getUser().getId();
+        List<String> topics = lp.getPath().stream().map(PathItem::getTopic).toList();
+        try {
+            jobs.getObject().submit(userId, "path-assessments", Map.of("pathId", pathId, "topics", topics));
+        } catch (RuntimeException e) {
+            // not fatal: a topic without a stored assessment gets one generated when it is opened
+            LOGGER.warning("Could not queue assessment pre-generation for path " + pathId + ": " + e.getMessage());
+        }
+    }
+
+    public void generateForPath(Long pathId, Long userId, List<String> topics) {
+        String learningPathId = String.valueOf(pathId);
+        Set<String> existing = new HashSet<>(assessmentRepo.findPendingTopicsByLearningPathId(learningPathId));
+
+        // topic -> index in the path, in path order, skipping topics that already have an assessment
+        Map<String, Integer> missing = new LinkedHashMap<>();
+        for (int i = 0; i < topics.size(); i++) {
+            String topic = topics.get(i);
+            if (topic != null && !topic.isBlank() && !existing.contains(topic)) missing.putIfAbsent(topic, i);
+        }
+
+        for (List<String> batch : batches(new ArrayList<>(missing.keySet()))) {
+            JsonNode result = ai.generateAssessmentsBatch(batch);
+            List<AssessmentRecord> records = new ArrayList<>();
+            for (int i = 0; i < result.size(); i++) {
+                JsonNode node = result.get(i);
+                String topic = node.path("topic").asText("");
+                // fall back to position when the model paraphrased the topic
+                if (!missing.containsKey(topic) && i < batch.size()) topic = batch.get(i);
+                JsonNode questions = node.path("questions");
+                if (!questions.isArray() || questions.isEmpty() || !batch.contains(topic)) continue;
+                records.add(newRecord(userId, learningPathId, missing.get(topic), topic, questions));
+            }
+            assessmentRepo.saveAll(records);
+        }
+    }
+
+    /** Stored assessment for the topic if one was generated already, otherwise generates and stores it now. */
+    public JsonNode assessmentFor(LearningPath lp, int topicIndex) {
+        String topic = lp.getPath().get(topicIndex).getTopic();
+        String learningPathId = String.valueOf(lp.getId());
+        Optional<AssessmentRecord> stored = assessmentRepo
+                .findFirstByLearningPathIdAndTopicAndEvaluationJsonIsNullOrderByCreatedAtDesc(learningPathId, topic);
+        if (stored.isPresent()) {
+            try {
+                return mapper.readTree(stored.get().getAssessmentJson());
+            } catch (Exception e) {
+                LOGGER.warning("Stored assessment " + stored.get().getId() + " is unreadable, regenerating");
+            }
+        }
+        JsonNode assessment = ai.generateAssessment(topic);
+        assessmentRepo.save(newRecord(lp.getUser().getId(), learningPathId, topicIndex, topic, assessment));
+        return assessment;
+    }
+
+    /**
+     * clientKeyAllowed: whether answers carrying their own correctAnswer may be graded against it when there is no
+     * stored key. Off wherever the score counts (a stored assessment, a path topic), since the client would be
+     * grading itself; its correctAnswer fields are then dropped before the AI evaluates the answers as well.
+     */
+    public JsonNode grade(String topic, String answerKeyJson, List<AssessmentSubmission.Answer> answers, boolean feedback,
+                          boolean clientKeyAllowed) {
+        JsonNode key = null;
+        if (answerKeyJson != null) {
+            try {
+                key = mapper.readTree(answerKeyJson);
+            } catch (Exception e) {
+                LOGGER.warning("Stored answer key for \"" + topic + "\" is unreadable: " + e.getMessage());
+            }
+        }
+
+        JsonNode result;
+        if (key != null && key.isArray() && !key.isEmpty()) {
+            result = grader.grade(key, answers);
+        } else if (clientKeyAllowed && AssessmentGrader.hasAnswerKey(answers)) {
+            result = grader.gradeSelfKeyed(answers);
+        } else {
+            if (!clientKeyAllowed) answers.forEach(a -> a.setCorrectAnswer(null));
+            try {
+                result = ai.evaluateAssessment(topic, mapper.writeValueAsString(answers));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Evaluation failed: " + e.getMessage());
+            }
+        }
+
+        if (feedback && result instanceof ObjectNode obj) {
+            obj.put("feedback", ai.assessmentFeedback(topic, result.toString()));
+        }
+        return result;
+    }
+
+    /** Grades a path topic against its stored assessment and records the evaluation on that assessment. */
+    public JsonNode evaluateForPath(LearningPath lp, int topicIndex, List<AssessmentSubmission.Answer> answers, boolean feedback) {
+        String topic = lp.getPath().get(topicIndex).getTopic();
+        Optional<AssessmentRecord> stored = assessmentRepo
+                .findFirstByLearningPathIdAndTopicAndEvaluationJsonIsNullOrderByCreatedAtDesc(String.valueOf(lp.getId()), topic);
+        JsonNode result = grade(topic, stored.map(AssessmentRecord::getAssessmentJson).orElse(null), answers, feedback,
+                false);
+
+        stored.ifPresent(ar -> {
+            int score = result.path("score").asInt(0);
+            int outOf = result.path("outOf").asInt(ar.getQuestionCount());
+            ar.setEvaluationJson(result.toString());
+            ar.setScore(score);
+            ar.setQuestionCount(outOf);
+            ar.setPassed(AssessmentGrader.passed(score, outOf));
+            assessmentRepo.save(ar);
+        });
+        return result;
+    }
+
+    // As many topics per prompt as the output token budget allows (at least one).
+    private List<List<String>> batches(List<String> topics) {
+        int perCall = Math.max(1, maxOutputTokens / TOKENS_PER_TOPIC);
+        List<List<String>> out = new ArrayList<>();
+        for (int i = 0; i < topics.size(); i += perCall) {
+            out.add(topics.subList(i, Math.min(topics.size(), i + perCall)));
+        }
+        return out;
+    }
+
+    private AssessmentRecord newRecord(Long userId, String learningPathId, Integer topicIndex, String topic, JsonNode questions) {
+        AssessmentRecord ar = new AssessmentRecord();
+        ar.setUser(userRepo.getReferenceById(userId));
+        ar.setTopic(topic);
+        ar.setLearningPathId(learningPathId);
+        ar.setTopicIndex(topicIndex);
+        ar.setAssessmentJson(questions.toString());
+        ar.setQuestionCount(questions.size());
+        ar.setScore(0);
+        ar.setPassed(false);
+        return ar;
+    }
+}
@@ -0,0 +1,190 @@
+package com.careerguidance.service;
+
+import com.careerguidance.model.ChatMessage;
+import com.careerguidance.model.ChatSession;
+import com.careerguidance.repository.ChatMessageRepository;
+import com.careerguidance.repository.ChatSessionRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/*
+ ChatContextBuilder: what a chat turn sends to Gemini, bounded regardless of session length.
+ - context = the session's rolling summary + the newest not-yet-summarized messages that fit ai.chat.context.max-tokens
+ - after a reply, compactAsync(...) folds the oldest unsummarized messages into the summary (one Gemini call per
+   batch) once they overflow the budget, until what is left fits ai.chat.context.target-tokens
+ - the summary and its (createdAt, id) high-water mark live on ChatSession, so each message is summarized once
+ - token counts are estimated (~4 chars per token); only bounded windows of messages are ever read
+*/
+
+@Component
+public class ChatContextBuilder {
+
+    private static final Logger LOGGER = Logger.getLogger(ChatContextBuilder.class.getName());
+
+    // folds per compaction run; a long legacy session catches up over several turns
+    private static final int MAX_FOLDS_PER_RUN = 5;
+
+    private final ChatSessionRepository chatSessionRepo;
+    private final ChatMessageRepository chatMessageRepo;
+    private final AiService ai;
+    private final AsyncTaskExecutor aiExecutor;
+    private final TransactionTemplate tx;
+    private final Set<Long> compacting = ConcurrentHashMap.newKeySet();
+
+    @Value("${ai.chat.context.max-tokens:3000}")
+    private int maxTokens;
+
+    @Value("${ai.chat.context.target-tokens:1500}")
+    private int targetTokens;
+
+    @Value("${ai.chat.context.max-messages:60}")
+    private int maxMessages;
+
+    @Value("${ai.chat.context.fold-batch:40}")
+    private int foldBatch;
+
+    @Value("${ai.chat.context.summary-max-words:300}")
+    private int summaryMaxWords;
+
+    public ChatContextBuilder(ChatSessionRepository chatSessionRepo,
+                              ChatMessageRepository chatMessageRepo,
+                              AiService ai,
+                              @Qualifier("aiExecutor") AsyncTaskExecutor aiExecutor,
+                              PlatformTransactionManager transactionManager) {
+        this.chatSessionRepo = chatSessionRepo;
+        this.chatMessageRepo = chatMessageRepo;
+        this.ai = ai;
+        this.aiExecutor = aiExecutor;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /** Summary plus role/content messages (oldest first) to send to the AI. */
+    public record ChatContext(String summary, List<Map<String, String>> messages) {}
+
+    public ChatContext build(ChatSession session) {
+        List<ChatMessage> recent = chatMessageRepo.findRecentAfter(session.getId(),
+                summarizedAt(session), summarizedId(session), Limit.of(maxMessages));
+        Deque<Map<String, String>> tail = new ArrayDeque<>();
+        int tokens = 0;
+        for (ChatMessage m : recent) { // newest first
+            int t = estimateTokens(m.getContent());
+            if (!tail.isEmpty() && tokens + t > maxTokens) break;
+            tail.addFirst(Map.of("role", m.getRole(), "content", m.getContent()));
+            tokens += t;
+        }
+        return new ChatContext(session.getSummary(), new ArrayList<>(tail));
+    }
+
+    /**
+     * Schedules summary compaction for the session (after the current transaction commits, if any);
+     * at most one run per session at a time.
+     */
+    public void compactAsync(Long sessionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(sessionId);
+                }
+            });
+        } else {
+            schedule(sessionId);
+        }
+    }
+
+    private void schedule(Long sessionId) {
+        if (!compacting.add(sessionId)) return;
+        try {
+            aiExecutor.execute(() -> {
+                try {
+                    compact(sessionId);
+                } catch (Exception e) {
+                    LOGGER.warning("Chat summary compaction failed for session " + sessionId + ": " + e.getMessage());
+                } finally {
+                    compacting.remove(sessionId);
+                }
+            });
+        } catch (RuntimeException e) {
+            compacting.remove(sessionId);
+            throw e;
+        }
+    }
+
+    void compact(Long sessionId) {
+        for (int fold = 0; fold < MAX_FOLDS_PER_RUN; fold++) {
+            ChatSession session = chatSessionRepo.findById(sessionId).orElse(null);
+            if (session == null) return;
+            Instant throughAt = summarizedAt(session);
+            long throughId = summarizedId(session);
+
+            // newest unsummarized messages; nothing to do while they fit the budget
+            List<ChatMessage> recent = chatMessageRepo.findRecentAfter(sessionId, throughAt, throughId, Limit.of(maxMessages + 1));
+            int total = 0;
+            for (ChatMessage m : recent) total += estimateTokens(m.getContent());
+            if (recent.size() <= maxMessages && total <= maxTokens) return;
+
+            // keep the newest messages that fit the target; everything older is folded, oldest batch first
+            int keep = 0, kept = 0;
+            for (ChatMessage m : recent) {
+                int t = estimateTokens(m.getContent());
+                if (keep > 0 && kept + t > targetTokens) break;
+                keep++;
+                kept += t;
+            }
+            ChatMessage oldestKept = recent.get(keep - 1);
+            List<ChatMessage> batch = new ArrayList<>();
+            for (ChatMessage m : chatMessageRepo.findOldestAfter(sessionId, throughAt, throughId, Limit.of(foldBatch))) {
+                if (!isBefore(m, oldestKept)) break;
+                batch.add(m);
+            }
+            if (batch.isEmpty()) return;
+
+            List<Map<String, String>> folded = new ArrayList<>(batch.size());
+            for (ChatMessage m : batch) folded.add(Map.of("role", m.getRole(), "content", m.getContent()));
+            String summary = ai.summarizeConversation(session.getSummary(), folded, summaryMaxWords);
+            ChatMessage last = batch.get(batch.size() - 1);
+
+            Boolean saved = tx.execute(status -> {
+                ChatSession locked = chatSessionRepo.findForUpdate(sessionId).orElse(null);
+                // another node moved the high-water mark meanwhile: drop this fold, the next run starts from theirs
+                if (locked == null || !Objects.equals(locked.getSummarizedThroughId(), session.getSummarizedThroughId())) {
+                    return false;
+                }
+                locked.setSummary(summary);
+                locked.setSummarizedThroughAt(last.getCreatedAt());
+                locked.setSummarizedThroughId(last.getId());
+                return true;
+            });
+            if (!Boolean.TRUE.equals(saved)) return;
+        }
+    }
+
+    public static int estimateTokens(String text) {
+        return (text == null ? 0 : text.length() + 3) / 4 + 4; // + per-message role/formatting overhead
+    }
+
+    private static boolean isBefore(ChatMessage a, ChatMessage b) {
+        int c = a.getCreatedAt().compareTo(b.getCreatedAt());
+        return c < 0 || (c == 0 && a.getId() < b.getId());
+    }
+
+    private static Instant summarizedAt(ChatSession s) {
+        return s.getSummarizedThroughAt() == null ? Instant.EPOCH : s.getSummarizedThroughAt();
+    }
+
+    private static long summarizedId(ChatSession s) {
+        return s.getSummarizedThroughId() == null ? 0L : s.getSummarizedThroughId();
+    }
+}
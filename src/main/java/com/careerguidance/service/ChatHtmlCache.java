@@ -0,0 +1,105 @@
+package com.careerguidance.service;
+
+import com.careerguidance.model.ChatMessage;
+import com.careerguidance.repository.ChatMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/*
+ ChatHtmlCache: rendered HTML of chat messages, stored on the message row next to the markdown.
+ - assistant replies are stored with their HTML when saved (the reply is rendered for the response anyway)
+ - html(messages) serves rows rendered with the current MarkdownRenderer.VERSION as stored; the rest (user messages,
+   rows from before this column or from another renderer configuration) are rendered now and written back in the
+   background once the caller's transaction has committed, so read-only requests stay read-only
+ - markdown.html.cache counts hits and misses; the rendering itself is timed by markdown.render
+*/
+
+@Component
+public class ChatHtmlCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ChatHtmlCache.class.getName());
+
+    private final MarkdownRenderer markdown;
+    private final ChatMessageRepository chatMessageRepo;
+    private final AsyncTaskExecutor aiExecutor;
+    private final TransactionTemplate tx;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ChatHtmlCache(MarkdownRenderer markdown,
+                         ChatMessageRepository chatMessageRepo,
+                         @Qualifier("aiExecutor") AsyncTaskExecutor aiExecutor,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry registry) {
+        this.markdown = markdown;
+        this.chatMessageRepo = chatMessageRepo;
+        this.aiExecutor = aiExecutor;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.hits = Counter.builder("markdown.html.cache").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("markdown.html.cache").tag("result", "miss").register(registry);
+    }
+
+    /** Stores already rendered HTML on a message that is about to be saved. */
+    public static void attach(ChatMessage message, String html) {
+        message.setContentHtml(html);
+        message.setHtmlRendererVersion(MarkdownRenderer.VERSION);
+    }
+
+    /** Message id -> HTML for every message. */
+    public Map<Long, String> html(List<ChatMessage> messages) {
+        Map<Long, String> html = new HashMap<>();
+        Map<Long, String> rendered = new HashMap<>();
+        for (ChatMessage m : messages) {
+            if (MarkdownRenderer.VERSION.equals(m.getHtmlRendererVersion()) && m.getContentHtml() != null) {
+                html.put(m.getId(), m.getContentHtml());
+                hits.increment();
+            } else {
+                String h = markdown.render(m.getContent());
+                html.put(m.getId(), h);
+                rendered.put(m.getId(), h);
+                misses.increment();
+            }
+        }
+        if (!rendered.isEmpty()) storeAfterCommit(rendered);
+        return html;
+    }
+
+    private void storeAfterCommit(Map<Long, String> rendered) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    store(rendered);
+                }
+            });
+        } else {
+            store(rendered);
+        }
+    }
+
+    // best effort: if it doesn't happen, the next read renders these messages again
+    private void store(Map<Long, String> rendered) {
+        try {
+            aiExecutor.execute(() -> {
+                try {
+                    tx.executeWithoutResult(status ->
+                            rendered.forEach((id, h) -> chatMessageRepo.updateHtml(id, h, MarkdownRenderer.VERSION)));
+                } catch (Exception e) {
+                    LOGGER.warning("Storing rendered chat HTML failed: " + e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            LOGGER.warning("Storing rendered chat HTML skipped: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.careerguidance.service;
+
+import com.careerguidance.dto.PageCursor;
+import com.careerguidance.exception.NotFoundException;
+import com.careerguidance.model.ChatMessage;
+import com.careerguidance.model.ChatSession;
+import com.careerguidance.model.User;
+import com.careerguidance.repository.ChatMessageRepository;
+import com.careerguidance.repository.ChatSessionRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.*;
+
+/*
+ ChatService: persistence side of a chat turn, shared by the blocking and streaming chat endpoints.
+ - beginTurn(...) resolves/creates the session, stores new incoming messages and returns the context for the AI
+   (rolling summary + bounded recent tail, see ChatContextBuilder) instead of the whole history
+ - saveAssistantReply(...) appends the assistant reply once it is complete, with its rendered HTML
+ - each is its own short transaction; callers wait for the AI between the two without holding a connection
+*/
+
+@Service
+public class ChatService {
+
+    // latest messages checked when deciding whether an incoming message was already saved
+    private static final int DEDUPE_WINDOW = 20;
+
+    private final ChatSessionRepository chatSessionRepo;
+    private final ChatMessageRepository chatMessageRepo;
+    private final ChatContextBuilder contextBuilder;
+
+    public ChatService(ChatSessionRepository chatSessionRepo, ChatMessageRepository chatMessageRepo,
+                       ChatContextBuilder contextBuilder) {
+        this.chatSessionRepo = chatSessionRepo;
+        this.chatMessageRepo = chatMessageRepo;
+        this.contextBuilder = contextBuilder;
+    }
+
+    /** Session id plus the summary and role/content messages to send to the AI. */
+    public record ChatTurn(Long sessionId, String summary, List<Map<String, String>> history) {}
+
+    @Transactional
+    public ChatTurn beginTurn(User user, Long sessionId, List<Map<String, String>> incomingMessages) {
+        ChatSession session = null;
+        if (sessionId != null) {
+            session = chatSessionRepo.findById(sessionId).orElse(null);
+            if (session != null && !session.getUser().getId().equals(user.getId())) {
+                throw new NotFoundException("Session not found");
+            }
+        }
+
+        if (session == null) {
+            session = new ChatSession();
+            session.setUser(user);
+            session.setTitle(titleFor(incomingMessages));
+            chatSessionRepo.save(session); // persist to get id
+        }
+
+        // Latest saved messages of this session (newest first)
+        List<ChatMessage> savedMessages = new ArrayList<>(chatMessageRepo.findPageBySessionId(session.getId(),
+                PageCursor.START.getTimestamp(), PageCursor.START.getId(), Limit.of(DEDUPE_WINDOW)));
+
+        // Persist only new incoming user messages (avoid duplicates), as one batched insert.
+        // Strategy: consider a message new if its content doesn't exactly match the last saved message with same role.
+        List<ChatMessage> newMessages = new ArrayList<>();
+        for (Map<String, String> m : incomingMessages) {
+            String role = m.getOrDefault("role", "user");
+            String content = m.getOrDefault("content", "");
+            if (content == null || content.isBlank()) continue;
+
+            boolean shouldSave = true;
+            // find last saved message of same role
+            for (ChatMessage sm : savedMessages) {
+                if (sm.getRole() != null && sm.getRole().equalsIgnoreCase(role)) {
+                    if (sm.getContent() != null && sm.getContent().equals(content)) {
+                        shouldSave = false; // duplicate
+                    }
+                    break;
+                }
+            }
+            if (shouldSave) {
+                ChatMessage cm = new ChatMessage();
+                cm.setRole(role);
+                cm.setContent(content);
+                cm.setSession(session);
+                newMessages.add(cm);
+                // maintain in-memory list
+                savedMessages.add(0, cm);
+                session.addMessage(cm);
+            }
+        }
+        chatMessageRepo.saveAll(newMessages);
+
+        // Summary + recent messages from DB, bounded by the context budget
+        ChatContextBuilder.ChatContext context = contextBuilder.build(session);
+        return new ChatTurn(session.getId(), context.summary(), context.messages());
+    }
+
+    @Transactional
+    public ChatMessage saveAssistantReply(Long sessionId, String replyMarkdown, String replyHtml) {
+        ChatSession session = chatSessionRepo.findById(sessionId)
+                .orElseThrow(() -> new NotFoundException("Session not found"));
+        ChatMessage assistantMsg = new ChatMessage();
+        assistantMsg.setRole("assistant");
+        assistantMsg.setContent(replyMarkdown);
+        ChatHtmlCache.attach(assistantMsg, replyHtml);
+        assistantMsg.setSession(session);
+        chatMessageRepo.save(assistantMsg);
+        session.addMessage(assistantMsg);
+        return assistantMsg;
+    }
+
+    // create title based on first incoming user content if available
+    private String titleFor(List<Map<String, String>> incomingMessages) {
+        String title = "Chat - " + Instant.now().toString().substring(0, 10);
+        Optional<String> firstUser = incomingMessages.stream()
+                .filter(m -> "user".equalsIgnoreCase(m.getOrDefault("role", "user")))
+                .map(m -> m.getOrDefault("content", ""))
+                .filter(s -> s != null && !s.isBlank())
+                .findFirst();
+        if (firstUser.isPresent()) {
+            String t = firstUser.get().trim();
+            if (t.length() > 40) t = t.substring(0, 40) + "...";
+            title = t;
+        }
+        return title;
+    }
+}
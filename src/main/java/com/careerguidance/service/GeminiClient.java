@@ -0,0 +1,214 @@
+package com.careerguidance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+/*
+ GeminiClient: wire-level Gemini REST calls (generateContent / streamGenerateContent).
+ - uses the pooled geminiRestTemplate (see GeminiHttpClientConfig)
+ - ai.gemini.base-url can point at a local stub server
+ - no caching, coalescing or limiting here; AiService layers those on top
+ - records status, latency, prompt/response size and parse failures per operation (AiMetrics)
+*/
+
+@Component
+public class GeminiClient {
+
+    private final RestTemplate rest;
+    private final AiMetrics metrics;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${ai.gemini.base-url:https://generativelanguage.googleapis.com}")
+    private String baseUrl;
+
+    @Value("${ai.gemini.model:gemini-1.5-flash}")
+    private String model;
+
+    @Value("${ai.gemini.apiKey:}")
+    private String apiKey;
+
+    public GeminiClient(@Qualifier("geminiRestTemplate") RestTemplate rest, AiMetrics metrics) {
+        this.rest = rest;
+        this.metrics = metrics;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    private String endpoint() {
+        return baseUrl + "/v1beta/models/" + model + ":generateContent?key=" + apiKey;
+    }
+
+    private String streamEndpoint() {
+        return baseUrl + "/v1beta/models/" + model + ":streamGenerateContent?alt=sse&key=" + apiKey;
+    }
+
+    private Map<String, Object> payload(String prompt, boolean expectJson) {
+        Map<String, Object> generationConfig = expectJson
+                ? Map.of("responseMimeType", "application/json")
+                : Map.of();
+
+        return Map.of(
+                "contents", List.of(Map.of("parts", List.of(Map.of("text", prompt)))) ,
+                "generationConfig", generationConfig
+        );
+    }
+
+    /**
+     * Returns the parsed JSON answer when expectJson is true, otherwise {"text": "..."}.
+     * operation only labels the metrics (see AiMetrics).
+     */
+    public JsonNode generate(String operation, String prompt, boolean expectJson) {
+        metrics.recordPromptSize(operation, prompt.length());
+        long start = System.nanoTime();
+        String body;
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+
+            ResponseEntity<String> resp = rest.exchange(
+                    endpoint(), HttpMethod.POST, new HttpEntity<>(payload(prompt, expectJson), headers), String.class);
+            metrics.recordUpstream(operation, "generate", String.valueOf(resp.getStatusCode().value()), System.nanoTime() - start);
+
+            if (!resp.getStatusCode().is2xxSuccessful()) {
+                throw new RuntimeException("Gemini error: " + resp.getStatusCode());
+            }
+            body = resp.getBody();
+        } catch (RestClientResponseException e) {
+            metrics.recordUpstream(operation, "generate", String.valueOf(e.getStatusCode().value()), System.nanoTime() - start);
+            throw new RuntimeException("Gemini call failed: " + e.getMessage(), e);
+        } catch (RestClientException e) {
+            metrics.recordUpstream(operation, "generate", isCancelled(e) ? "CANCELLED" : "IO_ERROR", System.nanoTime() - start);
+            throw new RuntimeException("Gemini call failed: " + e.getMessage(), e);
+        }
+
+        String text;
+        try {
+            text = extractText(mapper.readTree(body));
+        } catch (Exception e) {
+            metrics.parseFailure(operation, "envelope");
+            throw new RuntimeException("Gemini call failed: " + e.getMessage(), e);
+        }
+        metrics.recordResponseSize(operation, text.length());
+        if (!expectJson) {
+            return mapper.createObjectNode().put("text", text);
+        }
+        try {
+            return mapper.readTree(text);
+        } catch (Exception e) {
+            metrics.parseFailure(operation, "json");
+            throw new RuntimeException("Gemini call failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * True when a failed call means Gemini is overloaded or unreachable (429, 5xx, timeout, I/O error) rather
+     * than a problem with this particular request; drives the adaptive limit and the circuit breaker.
+     */
+    public static boolean isOverload(Throwable e) {
+        if (isCancelled(e)) return false;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof RestClientResponseException r) {
+                return r.getStatusCode().value() == 429 || r.getStatusCode().is5xxServerError();
+            }
+            if (t instanceof ResourceAccessException) return true;
+        }
+        return false;
+    }
+
+    /**
+     * True when the call was cut short by this side: its thread was interrupted because AiCallPolicy cancelled it
+     * (a losing hedge, an attempt past the deadline). The HTTP client reports that as an I/O error, but it says
+     * nothing about Gemini's health, so the limiter and the breaker ignore such calls.
+     */
+    public static boolean isCancelled(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) return true;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedException || t instanceof ClosedByInterruptException
+                    || t instanceof CancellationException) return true;
+        }
+        return false;
+    }
+
+    /** Text of the first candidate's first part of a generateContent envelope. */
+    public static String extractText(JsonNode root) {
+        JsonNode candidates = root.path("candidates");
+        if (candidates.isArray() && candidates.size() > 0) {
+            JsonNode textNode = candidates.get(0).path("content").path("parts").path(0).path("text");
+            if (textNode.isMissingNode()) throw new RuntimeException("Gemini: no text part");
+            return textNode.asText();
+        }
+        throw new RuntimeException("Gemini: unexpected response");
+    }
+
+    /**
+     * Streams the reply through Gemini's streamGenerateContent (SSE). Each text delta is passed to onToken
+     * as soon as it arrives; the full reply is returned once the upstream stream ends.
+     */
+    public String stream(String operation, String prompt, Consumer<String> onToken) {
+        metrics.recordPromptSize(operation, prompt.length());
+        long start = System.nanoTime();
+        try {
+            String text = rest.execute(streamEndpoint(), HttpMethod.POST,
+                    request -> {
+                        request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                        mapper.writeValue(request.getBody(), payload(prompt, false));
+                    },
+                    response -> {
+                        StringBuilder full = new StringBuilder();
+                        try (BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                            String line;
+                            while ((line = reader.readLine()) != null) {
+                                if (!line.startsWith("data:")) continue;
+                                JsonNode chunk;
+                                try {
+                                    chunk = mapper.readTree(line.substring(5).trim());
+                                } catch (IOException e) {
+                                    metrics.parseFailure(operation, "envelope");
+                                    throw e;
+                                }
+                                for (JsonNode part : chunk.path("candidates").path(0).path("content").path("parts")) {
+                                    String delta = part.path("text").asText("");
+                                    if (delta.isEmpty()) continue;
+                                    full.append(delta);
+                                    onToken.accept(delta);
+                                }
+                            }
+                        }
+                        metrics.recordUpstream(operation, "stream", String.valueOf(response.getStatusCode().value()), System.nanoTime() - start);
+                        return full.toString();
+                    });
+            if (text == null || text.isEmpty()) throw new RuntimeException("Gemini: empty stream");
+            metrics.recordResponseSize(operation, text.length());
+            return text;
+        } catch (RestClientResponseException e) {
+            metrics.recordUpstream(operation, "stream", String.valueOf(e.getStatusCode().value()), System.nanoTime() - start);
+            throw new RuntimeException("Gemini stream failed: " + e.getMessage(), e);
+        } catch (RestClientException e) {
+            metrics.recordUpstream(operation, "stream", isCancelled(e) ? "CANCELLED" : "IO_ERROR", System.nanoTime() - start);
+            throw new RuntimeException("Gemini stream failed: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new RuntimeException("Gemini stream failed: " + e.getMessage(), e);
+        }
+    }
+}
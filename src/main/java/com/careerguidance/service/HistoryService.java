@@ -0,0 +1,156 @@
+package com.careerguidance.service;
+
+import com.careerguidance.dto.AssessmentSummary;
+import com.careerguidance.dto.ChatSessionSummary;
+import com.careerguidance.dto.CursorPage;
+import com.careerguidance.dto.PageCursor;
+import com.careerguidance.exception.NotFoundException;
+import com.careerguidance.model.ChatMessage;
+import com.careerguidance.model.ChatSession;
+import com.careerguidance.repository.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+ HistoryService: cursor (keyset) pagination over a user's stored history.
+ - every page is "rows older than the cursor, newest first, limit + 1" on a (owner, created_at, id) index,
+   so page N costs the same as page 1 (no OFFSET scan)
+ - the extra row only tells whether another page exists; its key is not exposed
+*/
+
+@Service
+@Transactional(readOnly = true)
+public class HistoryService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final AssessmentRepository assessmentRepo;
+    private final FlashcardRepository flashcardRepo;
+    private final MockInterviewRepository mockInterviewRepo;
+    private final RecommendationRepository recommendationRepo;
+    private final ChatSessionRepository chatSessionRepo;
+    private final ChatMessageRepository chatMessageRepo;
+    private final ChatHtmlCache htmlCache;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public HistoryService(AssessmentRepository assessmentRepo, FlashcardRepository flashcardRepo,
+                          MockInterviewRepository mockInterviewRepo, RecommendationRepository recommendationRepo,
+                          ChatSessionRepository chatSessionRepo, ChatMessageRepository chatMessageRepo,
+                          ChatHtmlCache htmlCache) {
+        this.assessmentRepo = assessmentRepo;
+        this.flashcardRepo = flashcardRepo;
+        this.mockInterviewRepo = mockInterviewRepo;
+        this.recommendationRepo = recommendationRepo;
+        this.chatSessionRepo = chatSessionRepo;
+        this.chatMessageRepo = chatMessageRepo;
+        this.htmlCache = htmlCache;
+    }
+
+    public CursorPage<AssessmentSummary> assessments(Long userId, String cursor, int limit) {
+        PageCursor c = PageCursor.decode(cursor);
+        int n = pageSize(limit);
+        return page(assessmentRepo.findPageByUserId(userId, c.getTimestamp(), c.getId(), Limit.of(n + 1)), n,
+                AssessmentSummary::getCreatedAt, AssessmentSummary::getId, Function.identity());
+    }
+
+    public CursorPage<Map<String, Object>> flashcards(Long userId, String cursor, int limit) {
+        PageCursor c = PageCursor.decode(cursor);
+        int n = pageSize(limit);
+        return page(flashcardRepo.findPageByUserId(userId, c.getTimestamp(), c.getId(), Limit.of(n + 1)), n,
+                f -> f.getCreatedAt(), f -> f.getId(), f -> view(f.getId(), f.getCreatedAt(),
+                        "topic", f.getTopic(), "title", f.getTitle(), "cards", json(f.getContentJson())));
+    }
+
+    public CursorPage<Map<String, Object>> mockInterviews(Long userId, String cursor, int limit) {
+        PageCursor c = PageCursor.decode(cursor);
+        int n = pageSize(limit);
+        return page(mockInterviewRepo.findPageByUserId(userId, c.getTimestamp(), c.getId(), Limit.of(n + 1)), n,
+                m -> m.getCreatedAt(), m -> m.getId(), m -> view(m.getId(), m.getCreatedAt(),
+                        "role", m.getRoleName(), "result", json(m.getContentJson())));
+    }
+
+    public CursorPage<Map<String, Object>> recommendations(Long userId, String cursor, int limit) {
+        PageCursor c = PageCursor.decode(cursor);
+        int n = pageSize(limit);
+        return page(recommendationRepo.findPageByUserId(userId, c.getTimestamp(), c.getId(), Limit.of(n + 1)), n,
+                r -> r.getCreatedAt(), r -> r.getId(), r -> view(r.getId(), r.getCreatedAt(),
+                        "targetRole", r.getTargetRole(), "result", json(r.getContentJson())));
+    }
+
+    /** Sessions newest-created first. */
+    public CursorPage<ChatSessionSummary> sessions(Long userId, String cursor, int limit) {
+        PageCursor c = PageCursor.decode(cursor);
+        int n = pageSize(limit);
+        return page(chatSessionRepo.findPageByUserIdOrderByCreated(userId, c.getTimestamp(), c.getId(), Limit.of(n + 1)), n,
+                ChatSessionSummary::getCreatedAt, ChatSessionSummary::getId, Function.identity());
+    }
+
+    /** Sessions most recently active first (the chat sidebar order). */
+    public CursorPage<ChatSessionSummary> sessionsByActivity(Long userId, String cursor, int limit) {
+        PageCursor c = PageCursor.decode(cursor);
+        int n = pageSize(limit);
+        return page(chatSessionRepo.findPageByUserId(userId, c.getTimestamp(), c.getId(), Limit.of(n + 1)), n,
+                ChatSessionSummary::getLastActivityAt, ChatSessionSummary::getId, Function.identity());
+    }
+
+    /**
+     * One session's messages, newest first; page backwards through the conversation with the cursor.
+     * With html each message also carries its rendered HTML (ChatHtmlCache).
+     */
+    public CursorPage<Map<String, Object>> messages(Long userId, Long sessionId, String cursor, int limit, boolean html) {
+        ChatSession session = chatSessionRepo.findById(sessionId)
+                .orElseThrow(() -> new NotFoundException("Session not found"));
+        if (!session.getUser().getId().equals(userId)) throw new NotFoundException("Session not found");
+        PageCursor c = PageCursor.decode(cursor);
+        int n = pageSize(limit);
+        List<ChatMessage> rows = chatMessageRepo.findPageBySessionId(sessionId, c.getTimestamp(), c.getId(), Limit.of(n + 1));
+        if (!html) {
+            return page(rows, n, ChatMessage::getCreatedAt, ChatMessage::getId, m -> view(m.getId(), m.getCreatedAt(),
+                    "role", m.getRole(), "content", m.getContent()));
+        }
+        Map<Long, String> rendered = htmlCache.html(rows.subList(0, Math.min(n, rows.size())));
+        return page(rows, n, ChatMessage::getCreatedAt, ChatMessage::getId, m -> view(m.getId(), m.getCreatedAt(),
+                "role", m.getRole(), "content", m.getContent(), "html", rendered.get(m.getId())));
+    }
+
+    public static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    // rows were fetched with limit + 1: the extra row means there is a next page, which starts after the last kept row
+    private static <T, R> CursorPage<R> page(List<T> rows, int limit, Function<T, Instant> time,
+                                             Function<T, Long> id, Function<T, R> view) {
+        boolean more = rows.size() > limit;
+        List<T> kept = more ? rows.subList(0, limit) : rows;
+        String next = null;
+        if (more) {
+            T last = kept.get(kept.size() - 1);
+            next = new PageCursor(time.apply(last), id.apply(last)).encode();
+        }
+        return new CursorPage<>(kept.stream().map(view).toList(), next);
+    }
+
+    private static Map<String, Object> view(Long id, Instant createdAt, Object... fields) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", id);
+        for (int i = 0; i < fields.length; i += 2) m.put((String) fields[i], fields[i + 1]);
+        m.put("createdAt", createdAt);
+        return m;
+    }
+
+    private Object json(String raw) {
+        try {
+            return raw == null ? null : mapper.readTree(raw);
+        } catch (Exception e) {
+            return raw;
+        }
+    }
+}
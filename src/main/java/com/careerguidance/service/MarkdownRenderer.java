@@ -0,0 +1,109 @@
+package com.careerguidance.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/*
+ MarkdownRenderer: shared CommonMark parser/renderer (both are thread-safe and reusable).
+ - render(...) converts a whole markdown document
+ - incremental() returns a per-stream renderer that emits HTML for each completed block
+ - every render is timed (markdown.render)
+ - VERSION identifies the output: HTML stored with another version is rendered again (ChatHtmlCache)
+*/
+
+@Component
+public class MarkdownRenderer {
+
+    // bump when the parser/renderer configuration (extensions, options) changes
+    private static final String CONFIG = "core.1";
+
+    public static final String VERSION = "commonmark-" + commonmarkVersion() + "/" + CONFIG;
+
+    private final Parser parser = Parser.builder().build();
+    private final HtmlRenderer renderer = HtmlRenderer.builder().build();
+    private final Timer renderTimer;
+
+    public MarkdownRenderer(MeterRegistry registry) {
+        this.renderTimer = Timer.builder("markdown.render")
+                .description("CommonMark parse + HTML render")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public String render(String markdown) {
+        long start = System.nanoTime();
+        try {
+            return renderer.render(parser.parse(markdown == null ? "" : markdown));
+        } finally {
+            renderTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // the jar has no Implementation-Version; its Maven metadata does
+    private static String commonmarkVersion() {
+        try (InputStream in = Parser.class.getResourceAsStream("/META-INF/maven/org.commonmark/commonmark/pom.properties")) {
+            Properties props = new Properties();
+            if (in != null) props.load(in);
+            return props.getProperty("version", "unknown");
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    public Incremental incremental() {
+        return new Incremental();
+    }
+
+    /**
+     * Buffers streamed markdown and renders it block by block. A block is complete once a blank line
+     * is seen outside a fenced code block; anything after that stays buffered until more text arrives.
+     * Not thread-safe: one instance per stream.
+     */
+    public class Incremental {
+
+        private final StringBuilder pending = new StringBuilder();
+
+        /** Appends a delta and returns the HTML of newly completed blocks, or an empty string. */
+        public String append(String delta) {
+            pending.append(delta);
+            int boundary = lastBlockBoundary();
+            if (boundary <= 0) return "";
+            String complete = pending.substring(0, boundary);
+            pending.delete(0, boundary);
+            return render(complete);
+        }
+
+        /** Renders whatever is still buffered once the stream has ended. */
+        public String finish() {
+            if (pending.isEmpty()) return "";
+            String rest = pending.toString();
+            pending.setLength(0);
+            return render(rest);
+        }
+
+        private int lastBlockBoundary() {
+            boolean inFence = false;
+            int boundary = -1;
+            int lineStart = 0;
+            boolean previousBlank = false;
+            for (int i = 0; i < pending.length(); i++) {
+                if (pending.charAt(i) != '\n') continue;
+                String line = pending.substring(lineStart, i).trim();
+                if (line.startsWith("```") || line.startsWith("~~~")) inFence = !inFence;
+                boolean blank = line.isEmpty();
+                if (blank && !previousBlank && !inFence && lineStart > 0) boundary = i + 1;
+                previousBlank = blank;
+                lineStart = i + 1;
+            }
+            return boundary;
+        }
+    }
+}
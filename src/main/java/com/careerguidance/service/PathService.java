@@ -1,12 +1,19 @@
 package com.careerguidance.service;
 
+import com.careerguidance.dto.NextPathItem;
+import com.careerguidance.dto.PathSummary;
 import com.careerguidance.exception.NotFoundException;
 import com.careerguidance.model.LearningPath;
 import com.careerguidance.model.PathItem;
 import com.careerguidance.model.User;
 import com.careerguidance.repository.LearningPathRepository;
+import com.careerguidance.repository.PathItemRepository;
 import com.careerguidance.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -15,19 +22,40 @@ import java.util.*;
 public class PathService {
 
     private final LearningPathRepository pathRepo;
+    private final PathItemRepository itemRepo;
     private final UserRepository userRepo;
+    private final UserStatsService statsService;
+    private final EntityManager entityManager;
 
-    public PathService(LearningPathRepository pathRepo, UserRepository userRepo) {
+    public PathService(LearningPathRepository pathRepo, PathItemRepository itemRepo, UserRepository userRepo,
+                       UserStatsService statsService, EntityManager entityManager) {
         this.pathRepo = pathRepo;
+        this.itemRepo = itemRepo;
         this.userRepo = userRepo;
+        this.statsService = statsService;
+        this.entityManager = entityManager;
     }
 
     public List<LearningPath> listForUser(Long userId) {
         return pathRepo.findByUserId(userId);
     }
 
+    // two projection queries (counts per path, next open item per path); item LOB columns are never read
+    public List<PathSummary> listSummariesForUser(Long userId) {
+        List<PathSummary> summaries = pathRepo.findSummariesByUserId(userId);
+        if (summaries.isEmpty()) return summaries;
+        Map<Long, PathSummary> byId = new HashMap<>();
+        for (PathSummary s : summaries) byId.put(s.getId(), s);
+        for (NextPathItem next : itemRepo.findNextOpenItems(byId.keySet())) {
+            byId.get(next.getPathId()).setNextItem(next);
+        }
+        return summaries;
+    }
+
+    // path and stats commit together, so user_stats never misses the new items
+    @Transactional
     public LearningPath createPath(Long userId, String domain, List<Map<String, Object>> items) {
-        User user = userRepo.findById(userId).orElseThrow(() -> new NotFoundException("User not found"));
+        User user = userRepo.getReferenceById(userId); // authenticated principal: the user exists
         LearningPath lp = new LearningPath();
         lp.setDomain(domain);
         lp.setUser(user);
@@ -37,7 +65,7 @@ public class PathService {
 
         for (Map<String, Object> it : items) {
             String topic = String.valueOf(it.get("topic"));
-            int duration = ((Number) it.get("duration")).intValue();
+            int duration = duration(it.get("duration"));
             LocalDate end = start.plusDays(duration);
 
             PathItem pi = new PathItem();
@@ -52,7 +80,10 @@ public class PathService {
             start = end;
         }
         lp.setPath(pathItems);
-        return pathRepo.save(lp);
+        LearningPath saved = pathRepo.save(lp);
+        statsService.applyChange(userId, List.of(), saved.getPath());
+        saved.setItemsSnapshot(snapshot(saved.getPath()));
+        return saved;
     }
 
     public LearningPath getByIdForUser(Long pathId, Long userId) {
@@ -60,61 +91,110 @@ public class PathService {
         if (!lp.getUser().getId().equals(userId)) {
             throw new NotFoundException("Path not found for user");
         }
+        // first load in this persistence context: remember item states before callers edit them in place
+        if (lp.getItemsSnapshot() == null) lp.setItemsSnapshot(snapshot(lp.getPath()));
         return lp;
     }
 
+    // items are merged by id (see LearningPath.setPath): unchanged items are not written at all.
+    // The stats delta is taken against the snapshot of the first load, so the path's version must still be the
+    // one loaded with it: a concurrent change fails this one with 409 rather than being counted twice
+    @Transactional
     public LearningPath updatePath(Long pathId, Long userId, List<PathItem> items) {
         LearningPath lp = getByIdForUser(pathId, userId);
+        entityManager.lock(lp, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        List<PathItem> before = lp.getItemsSnapshot();
         lp.setPath(items);
-        return pathRepo.save(lp);
+        LearningPath saved = pathRepo.save(lp);
+        statsService.applyChange(userId, before, saved.getPath());
+        saved.setItemsSnapshot(snapshot(saved.getPath()));
+        return saved;
     }
 
+    // single-row update of the notes column
+    @Transactional
     public LearningPath updateItemNotes(Long pathId, Long userId, int index, String notes) {
-        LearningPath lp = getByIdForUser(pathId, userId);
-        List<PathItem> list = lp.getPath();
-        if (index < 0 || index >= list.size()) throw new NotFoundException("Item not found");
-        PathItem item = list.get(index);
+        PathItem item = itemRepo.findByPositionForUser(pathId, userId, index)
+                .orElseThrow(() -> new NotFoundException("Item not found"));
         item.setNotes(notes);
-        return pathRepo.save(lp);
+        return item.getLearningPath();
     }
 
-    // +++ PATCH: add simple stats DTO-ish structure +++
-    public Map<String,Object> computeUserStats(Long userId) {
-        List<LearningPath> paths = listForUser(userId);
-        int total = 0, completed = 0, pending = 0, overdue = 0;
-
-        LocalDate today = LocalDate.now();
-        for (LearningPath lp : paths) {
-            for (PathItem it : lp.getPath()) {
-                total++;
-                String status = (it.getStatus() == null ? "pending" : it.getStatus());
-                LocalDate end = it.getEndDate() == null ? today : LocalDate.parse(it.getEndDate());
-                if ("completed".equalsIgnoreCase(status)) completed++;
-                else if (end.isBefore(today)) overdue++;
-                else pending++;
-            }
+    /**
+     * Partial update of one item: only the fields present in {@code changes} are set
+     * (topic, duration, startDate, endDate, status, notes, assessmentResult), so only that row is written.
+     */
+    @Transactional
+    public PathItem patchItem(Long pathId, Long userId, Long itemId, Map<String, Object> changes) {
+        // item and path (with its version) come from one statement, so before matches the version checked at commit
+        PathItem item = itemRepo.findForUser(pathId, userId, itemId)
+                .orElseThrow(() -> new NotFoundException("Item not found"));
+        entityManager.lock(item.getLearningPath(), LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        List<PathItem> before = snapshot(List.of(item));
+
+        if (changes.containsKey("topic")) item.setTopic(text(changes.get("topic")));
+        if (changes.containsKey("duration")) item.setDuration(duration(changes.get("duration")));
+        if (changes.containsKey("startDate")) item.setStartDate(text(changes.get("startDate")));
+        if (changes.containsKey("endDate")) item.setEndDate(text(changes.get("endDate")));
+        if (changes.containsKey("status")) item.setStatus(text(changes.get("status")));
+        if (changes.containsKey("notes")) item.setNotes(text(changes.get("notes")));
+        if (changes.containsKey("assessmentResult")) item.setAssessmentResult(text(changes.get("assessmentResult")));
+
+        statsService.applyChange(userId, before, List.of(item));
+        return item;
+    }
+
+    // days from client JSON: a whole number (or a string of one) that is 0 or more; anything else is a 400
+    static int duration(Object value) {
+        if (value == null) throw new IllegalArgumentException("duration is required");
+        try {
+            int days = Integer.parseInt(String.valueOf(value).trim());
+            if (days >= 0) return days;
+        } catch (NumberFormatException ignored) {
+            // reported below
         }
+        throw new IllegalArgumentException("duration must be a whole number of days, 0 or more");
+    }
+
+    private static String text(Object value) {
+        return value == null ? null : String.valueOf(value);
+    }
 
-        // very simple streak: count consecutive days with at least one completed item ending that day
-        int streak = 0;
-        LocalDate d = today;
-        while (true) {
-            LocalDate finalD = d;
-            boolean any = paths.stream().flatMap(p -> p.getPath().stream())
-                    .anyMatch(it -> "completed".equalsIgnoreCase(it.getStatus())
-                            && it.getEndDate() != null
-                            && LocalDate.parse(it.getEndDate()).equals(finalD));
-            if (any) { streak++; d = d.minusDays(1); } else break;
+    /** Pending items laid out back to back from {@code start}, one per {topic, duration} node of an AI schedule. */
+    public static List<PathItem> scheduleFrom(JsonNode schedule, LocalDate start) {
+        List<PathItem> items = new ArrayList<>(schedule.size());
+        for (JsonNode node : schedule) {
+            int duration = node.path("duration").asInt(1);
+            LocalDate end = start.plusDays(duration);
+
+            PathItem pi = new PathItem();
+            pi.setTopic(node.path("topic").asText());
+            pi.setDuration(duration);
+            pi.setStartDate(start.toString());
+            pi.setEndDate(end.toString());
+            pi.setStatus("pending");
+            pi.setAssessmentResult(null);
+            items.add(pi);
+
+            start = end;
         }
+        return items;
+    }
+
+    // Stats come from the incrementally maintained UserStats aggregate (see UserStatsService)
+    public Map<String,Object> computeUserStats(Long userId) {
+        return statsService.statsFor(userId);
+    }
 
-        double progress = total == 0 ? 0 : (completed * 100.0 / total);
-        return Map.of(
-                "total", total,
-                "completed", completed,
-                "pending", pending,
-                "overdue", overdue,
-                "progress", progress,
-                "streak", streak
-        );
+    // status/endDate copies of the items, detached from the entity so later in-place edits don't change them
+    private static List<PathItem> snapshot(List<PathItem> items) {
+        List<PathItem> copy = new ArrayList<>(items.size());
+        for (PathItem it : items) {
+            PathItem c = new PathItem();
+            c.setStatus(it.getStatus());
+            c.setEndDate(it.getEndDate());
+            copy.add(c);
+        }
+        return copy;
     }
 }
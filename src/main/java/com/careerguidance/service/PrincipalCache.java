@@ -0,0 +1,75 @@
+package com.careerguidance.service;
+
+import com.careerguidance.config.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/*
+ PrincipalCache: authenticated principals by JWT subject (email), so a request doesn't hit the users table.
+ - entries live auth.principal-cache.ttl-seconds; a deleted/changed user is seen again after at most that long
+ - evict(subject) drops an entry immediately (signup, account changes)
+ - bounded by auth.principal-cache.max-entries, least recently used first
+*/
+
+@Component
+public class PrincipalCache {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private record Entry(AuthenticatedUser principal, long expiresAt) {}
+
+    public PrincipalCache(@Value("${auth.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${auth.principal-cache.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > PrincipalCache.this.maxEntries;
+            }
+        };
+    }
+
+    /** Cached principal for the subject, loading (outside the lock) on a miss or after expiry. */
+    public AuthenticatedUser get(String subject, Function<String, AuthenticatedUser> loader) {
+        if (ttlMillis > 0) {
+            synchronized (entries) {
+                Entry e = entries.get(subject);
+                if (e != null && e.expiresAt() > System.currentTimeMillis()) {
+                    hits.incrementAndGet();
+                    return e.principal();
+                }
+            }
+        }
+        misses.incrementAndGet();
+        AuthenticatedUser principal = loader.apply(subject);
+        if (ttlMillis > 0) {
+            synchronized (entries) {
+                entries.put(subject, new Entry(principal, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return principal;
+    }
+
+    public void evict(String subject) {
+        synchronized (entries) {
+            entries.remove(subject);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        synchronized (entries) {
+            return Map.of("size", entries.size(), "hits", hits.get(), "misses", misses.get());
+        }
+    }
+}
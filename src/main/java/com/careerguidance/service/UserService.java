@@ -1,5 +1,6 @@
 package com.careerguidance.service;
 
+import com.careerguidance.config.AuthenticatedUser;
 import com.careerguidance.model.User;
 import com.careerguidance.repository.UserRepository;
 import org.springframework.security.core.userdetails.*;
@@ -11,8 +12,12 @@ import java.util.Collections;
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepo;
+    private final PrincipalCache principalCache;
 
-    public UserService(UserRepository userRepo) { this.userRepo = userRepo; }
+    public UserService(UserRepository userRepo, PrincipalCache principalCache) {
+        this.userRepo = userRepo;
+        this.principalCache = principalCache;
+    }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -22,7 +27,21 @@ public class UserService implements UserDetailsService {
                 u.getEmail(), u.getPassword(), Collections.emptyList());
     }
 
-    public User getByEmail(String email) {
-        return userRepo.findByEmail(email).orElseThrow();
+    // principal for an already verified JWT subject; served from PrincipalCache
+    public AuthenticatedUser loadPrincipal(String email) {
+        return principalCache.get(email, subject -> {
+            User u = userRepo.findByEmail(subject)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + subject));
+            return new AuthenticatedUser(u.getId(), u.getEmail());
+        });
+    }
+
+    public void evictPrincipal(String email) {
+        principalCache.evict(email);
+    }
+
+    // lazy entity reference for associations (no query)
+    public User reference(Long userId) {
+        return userRepo.getReferenceById(userId);
     }
 }
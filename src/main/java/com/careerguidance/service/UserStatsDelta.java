@@ -0,0 +1,42 @@
+package com.careerguidance.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Net effect of a set of item changes on one user's stats: the change of the totals and, per end date, of the
+ * open and completed counts. Built in memory from the changed items only; UserStatsService writes it with SQL.
+ */
+public final class UserStatsDelta {
+
+    private int total;
+    private int completed;
+    private int open;
+    private final Map<String, int[]> days = new TreeMap<>(); // end date -> {open, completed}
+
+    /** Adds (sign = 1) or removes (sign = -1) one item's contribution. */
+    public UserStatsDelta apply(String status, String endDate, int sign) {
+        total += sign;
+        if ("completed".equalsIgnoreCase(status)) {
+            completed += sign;
+            if (endDate != null) days.computeIfAbsent(endDate, d -> new int[2])[1] += sign;
+        } else {
+            open += sign;
+            if (endDate != null) days.computeIfAbsent(endDate, d -> new int[2])[0] += sign;
+        }
+        return this;
+    }
+
+    public int getTotal() { return total; }
+    public int getCompleted() { return completed; }
+    public int getOpen() { return open; }
+
+    /** Per end date {open, completed} changes; dates whose changes cancel out are left out. */
+    public Map<String, int[]> getDays() {
+        Map<String, int[]> changed = new TreeMap<>();
+        days.forEach((day, counts) -> {
+            if (counts[0] != 0 || counts[1] != 0) changed.put(day, counts);
+        });
+        return changed;
+    }
+}
@@ -0,0 +1,153 @@
+package com.careerguidance.service;
+
+import com.careerguidance.dto.OverdueCounts;
+import com.careerguidance.model.LearningPath;
+import com.careerguidance.model.PathItem;
+import com.careerguidance.model.UserStats;
+import com.careerguidance.repository.LearningPathRepository;
+import com.careerguidance.repository.UserStatsDayRepository;
+import com.careerguidance.repository.UserStatsRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+
+/*
+ UserStatsService: keeps the per-user stats (user_stats totals + user_stats_days counts per end date) in step with
+ path item changes.
+ - applyChange(...) removes the old contribution of the changed items and adds the new one (O(changed items)): the
+   totals on the locked user_stats row, the per-day counts with += updates of only the dates involved
+ - statsFor(...) reads the totals row, one aggregate over the days with overdue items and the completed days back
+   from today while the streak lasts; completed history further back is never read
+ - the first row is created with insert ... on conflict do nothing, so concurrent first requests don't collide on the
+   primary key; the request that inserted it builds it, the others wait for its lock and apply their change on top
+ - every write happens under that row lock, so changes of one user are applied one after another
+*/
+
+@Service
+public class UserStatsService {
+
+    private static final int STREAK_PAGE = 32;
+
+    private final UserStatsRepository statsRepo;
+    private final UserStatsDayRepository dayRepo;
+    private final LearningPathRepository pathRepo;
+
+    public UserStatsService(UserStatsRepository statsRepo, UserStatsDayRepository dayRepo, LearningPathRepository pathRepo) {
+        this.statsRepo = statsRepo;
+        this.dayRepo = dayRepo;
+        this.pathRepo = pathRepo;
+    }
+
+    /**
+     * Call after the new item state has been saved. before/after are the item states of the changed path
+     * (or single item) prior to and after the change.
+     */
+    @Transactional
+    public void applyChange(Long userId, List<PathItem> before, List<PathItem> after) {
+        UserStats stats = statsRepo.findForUpdate(userId).orElse(null);
+        if (stats == null) {
+            if (statsRepo.insertIfMissing(userId) == 1) {
+                // first change for this user: the scan already sees the saved state
+                initialize(userId);
+                return;
+            }
+            // created by a concurrent first request, which could not see this change: apply it on top
+            stats = statsRepo.findForUpdate(userId).orElseThrow();
+        }
+        if (stats.getOpenItems() == null) {
+            initialize(userId); // row from before per-day counts: rebuild once, which includes this change
+            return;
+        }
+        UserStatsDelta delta = new UserStatsDelta();
+        for (PathItem it : before) delta.apply(it.getStatus(), it.getEndDate(), -1);
+        for (PathItem it : after) delta.apply(it.getStatus(), it.getEndDate(), 1);
+        apply(stats, delta);
+        if (delta.getCompleted() > 0) stats.setLastActivityDay(LocalDate.now().toString());
+    }
+
+    @Transactional
+    public Map<String, Object> statsFor(Long userId) {
+        UserStats stats = statsRepo.findById(userId).orElse(null);
+        if (stats == null) {
+            stats = statsRepo.insertIfMissing(userId) == 1 ? initialize(userId) : statsRepo.findById(userId).orElseThrow();
+        }
+        if (stats.getOpenItems() == null) stats = initialize(userId);
+        return view(stats, LocalDate.now());
+    }
+
+    Map<String, Object> view(UserStats stats, LocalDate today) {
+        Long userId = stats.getUserId();
+        OverdueCounts overdue = dayRepo.findOverdue(userId, today.toString(),
+                today.minusDays(7).toString(), today.minusDays(30).toString());
+        int total = stats.getTotalItems(), completed = stats.getCompletedItems();
+
+        double progress = total == 0 ? 0 : (completed * 100.0 / total);
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("total", total);
+        view.put("completed", completed);
+        view.put("pending", stats.getOpenItems() - (int) overdue.getTotal());
+        view.put("overdue", (int) overdue.getTotal());
+        view.put("overdueBuckets", Map.of("upTo7Days", (int) overdue.getUpTo7Days(),
+                "upTo30Days", (int) overdue.getUpTo30Days(), "older", (int) overdue.getOlder()));
+        view.put("progress", progress);
+        view.put("streak", streak(userId, today));
+        view.put("lastActivityDay", stats.getLastActivityDay() == null ? "" : stats.getLastActivityDay());
+        return view;
+    }
+
+    // consecutive days (back from today) with at least one completed item ending that day
+    private int streak(Long userId, LocalDate today) {
+        int streak = 0;
+        LocalDate expected = today;
+        while (true) {
+            List<String> days = dayRepo.findCompletedDaysBefore(userId, expected.plusDays(1).toString(), Limit.of(STREAK_PAGE));
+            for (String day : days) {
+                if (!day.equals(expected.toString())) return streak;
+                streak++;
+                expected = expected.minusDays(1);
+            }
+            if (days.size() < STREAK_PAGE) return streak;
+        }
+    }
+
+    private void apply(UserStats stats, UserStatsDelta delta) {
+        Long userId = stats.getUserId();
+        stats.setTotalItems(stats.getTotalItems() + delta.getTotal());
+        stats.setCompletedItems(stats.getCompletedItems() + delta.getCompleted());
+        stats.setOpenItems(stats.getOpenItems() + delta.getOpen());
+        stats.setUpdatedAt(Instant.now());
+
+        Map<String, int[]> days = delta.getDays();
+        if (days.isEmpty()) return;
+        days.forEach((day, counts) -> {
+            if (dayRepo.addCounts(userId, day, counts[0], counts[1]) == 0) {
+                dayRepo.insertCounts(userId, day, counts[0], counts[1]);
+            }
+        });
+        dayRepo.deleteEmpty(userId, days.keySet());
+    }
+
+    // fills the row this transaction has locked (just inserted, or a legacy one) from a full scan
+    private UserStats initialize(Long userId) {
+        UserStats stats = statsRepo.findForUpdate(userId).orElseThrow();
+        dayRepo.deleteByUser(userId);
+        stats.setTotalItems(0);
+        stats.setCompletedItems(0);
+        stats.setOpenItems(0);
+        apply(stats, aggregate(pathRepo.findByUserId(userId)));
+        return stats;
+    }
+
+    /** The delta that builds a user's stats from scratch over all of their paths. */
+    public static UserStatsDelta aggregate(List<LearningPath> paths) {
+        UserStatsDelta delta = new UserStatsDelta();
+        for (LearningPath lp : paths) {
+            for (PathItem it : lp.getPath()) delta.apply(it.getStatus(), it.getEndDate(), 1);
+        }
+        return delta;
+    }
+}
@@ -0,0 +1,64 @@
+package com.careerguidance.dto;
+
+import com.careerguidance.exception.ApiExceptionHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchRuntimeException;
+
+class PageCursorTest {
+
+	@Test
+	void roundTripsTimestampAndId() {
+		PageCursor cursor = new PageCursor(Instant.parse("2026-03-15T10:15:30.123456Z"), 42L);
+
+		String token = cursor.encode();
+		PageCursor decoded = PageCursor.decode(token);
+
+		assertThat(token).doesNotContain("=", "+", "/"); // URL-safe without padding
+		assertThat(decoded.getTimestamp()).isEqualTo(cursor.getTimestamp());
+		assertThat(decoded.getId()).isEqualTo(42L);
+	}
+
+	@Test
+	void missingCursorStartsBeforeEveryRow() {
+		assertThat(PageCursor.decode(null)).isSameAs(PageCursor.START);
+		assertThat(PageCursor.decode("  ")).isSameAs(PageCursor.START);
+		assertThat(PageCursor.START.getTimestamp()).isAfter(Instant.now());
+		assertThat(PageCursor.START.getId()).isEqualTo(Long.MAX_VALUE);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"not base64!",
+			"bm8tc2VwYXJhdG9y",             // "no-separator"
+			"eWVzdGVyZGF5fDQy",             // "yesterday|42"
+			"MjAyNi0wMy0xNVQxMDoxNTozMFp8", // "2026-03-15T10:15:30Z|"
+			"MjAyNi0wMy0xNVQxMDoxNTozMFp8NDJ4" // "2026-03-15T10:15:30Z|42x"
+	})
+	void invalidCursorIsABadRequest(String token) {
+		RuntimeException e = catchRuntimeException(() -> PageCursor.decode(token));
+
+		assertThat(e).hasMessage("Invalid cursor");
+		assertThat(new ApiExceptionHandler().handleRuntime(e).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void tamperedCursorIsRejected() {
+		String token = new PageCursor(Instant.parse("2026-03-15T10:15:30Z"), 42L).encode();
+		String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+
+		for (String edited : new String[]{raw + " or 1=1", raw.replace("|42", "|-"), "x" + raw}) {
+			String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(edited.getBytes(StandardCharsets.UTF_8));
+			assertThat(catchRuntimeException(() -> PageCursor.decode(forged))).as(edited).hasMessage("Invalid cursor");
+		}
+		assertThat(catchRuntimeException(() -> PageCursor.decode(token.substring(1)))).hasMessage("Invalid cursor");
+	}
+}
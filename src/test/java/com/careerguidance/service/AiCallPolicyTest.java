@@ -0,0 +1,97 @@
+package com.careerguidance.service;
+
+import com.careerguidance.exception.AiUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AiCallPolicyTest {
+
+	private final AiConcurrencyLimiter limiter = new AiConcurrencyLimiter(2, 16, 64, 50, 2000, 20000, 0.7, 2);
+	private final AiCircuitBreaker breaker = new AiCircuitBreaker(true, 20, 1, 50, 30, 3);
+	private final AiMetrics metrics = new AiMetrics(new SimpleMeterRegistry());
+	// explain is hedged after 50 ms (min-samples is never reached, so the default delay applies)
+	private final AiCallPolicy policy = new AiCallPolicy(limiter, breaker, metrics, new SimpleAsyncTaskExecutor("ai-attempt-"),
+			1, 10, 10, 5000, 2, List.of("explain"), 10, 50, 1000);
+
+	@Test
+	void losingHedgeLeavesLimitAndBreakerUnchanged() throws Exception {
+		CountDownLatch primaryDone = new CountDownLatch(1);
+		AtomicInteger attempts = new AtomicInteger();
+		Supplier<String> attempt = () -> {
+			boolean primary = attempts.incrementAndGet() == 1;
+			try {
+				return breaker.call(() -> limiter.call(() -> primary ? slowUpstreamCall() : "hedge"));
+			} finally {
+				if (primary) primaryDone.countDown();
+			}
+		};
+
+		String result = policy.call("explain", attempt);
+
+		assertThat(result).isEqualTo("hedge");
+		assertThat(primaryDone.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(limiter.stats()).containsEntry("inFlight", 0);
+		assertThat(limiter.stats()).containsEntry("limit", 16).containsEntry("decreases", 0L);
+		// only the winning hedge is recorded
+		assertThat(breaker.stats()).containsEntry("recordedCalls", 1).containsEntry("failureRate", 0.0);
+		assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void streamStillRunningAtTheDeadlineIsCancelled() throws Exception {
+		AiCallPolicy shortDeadline = new AiCallPolicy(limiter, breaker, metrics, new SimpleAsyncTaskExecutor("ai-attempt-"),
+				1, 10, 10, 200, 2, List.of(), 10, 50, 1000);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		List<String> received = new CopyOnWriteArrayList<>();
+
+		assertThatThrownBy(() -> shortDeadline.callStream("chat", received::add, tokens -> {
+			tokens.accept("Hello");
+			try {
+				return slowUpstreamCall();
+			} finally {
+				cancelled.countDown();
+			}
+		})).isInstanceOf(AiUnavailableException.class);
+
+		assertThat(received).containsExactly("Hello");
+		assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void ioErrorWithoutInterruptStillCountsAsOverload() {
+		Supplier<String> gemini = () -> {
+			throw new RuntimeException("Gemini call failed",
+					new ResourceAccessException("I/O error", new IOException("Connection reset")));
+		};
+
+		assertThatThrownBy(() -> breaker.call(() -> limiter.call(gemini))).isInstanceOf(RuntimeException.class);
+
+		assertThat(limiter.stats()).containsEntry("limit", 11).containsEntry("decreases", 1L);
+		assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.OPEN);
+	}
+
+	// blocks like an HTTP call and fails the way RestTemplate over JdkClientHttpRequest does when interrupted
+	private static String slowUpstreamCall() {
+		try {
+			Thread.sleep(10_000);
+			return "primary";
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Gemini call failed",
+					new ResourceAccessException("I/O error", new IOException("Request was interrupted", e)));
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.careerguidance.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AiGenerationServiceTest {
+
+	@Test
+	void acceptsWhatGenerateCanRun() {
+		assertThatCode(() -> {
+			AiGenerationService.validate("skill-gap", Map.of("resume", "..."));
+			AiGenerationService.validate("mock-interview", Map.of("rounds", "3"));
+			AiGenerationService.validate("mock-interview", Map.of());
+			AiGenerationService.validate("flashcards", Map.of("topic", "java", "count", 12));
+			AiGenerationService.validate("path-assessments", Map.of("pathId", 7, "topics", List.of("Java")));
+		}).doesNotThrowAnyException();
+	}
+
+	@Test
+	void rejectsParamsAJobCouldNeverRunWith() {
+		assertThatThrownBy(() -> AiGenerationService.validate("mock-interview", Map.of("rounds", "five")))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("rounds must be a positive whole number");
+		assertThatThrownBy(() -> AiGenerationService.validate("flashcards", Map.of("count", 0)))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("count must be a positive whole number");
+		assertThatThrownBy(() -> AiGenerationService.validate("path-assessments", Map.of("pathId", "x", "topics", List.of())))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("pathId must be a number");
+		assertThatThrownBy(() -> AiGenerationService.validate("path-assessments", Map.of("pathId", 7, "topics", "Java")))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("topics must be a list");
+		assertThatThrownBy(() -> AiGenerationService.validate("essay", Map.of()))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Unknown job type: essay");
+	}
+}
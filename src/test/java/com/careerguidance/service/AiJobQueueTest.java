@@ -0,0 +1,214 @@
+package com.careerguidance.service;
+
+import com.careerguidance.exception.AiUnavailableException;
+import com.careerguidance.model.AiJob;
+import com.careerguidance.repository.AiJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the claim query is PostgreSQL SQL (FOR UPDATE SKIP LOCKED); H2 in PostgreSQL mode stands in for the database
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:aijobs;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=10000",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"ai.jobs.max-attempts=2",
+		"ai.jobs.visibility-timeout-seconds=300",
+		"ai.jobs.retry-base-delay-seconds=10"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AiJobQueue.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every queue call commits on its own, as in production
+class AiJobQueueTest {
+
+	@Autowired
+	private AiJobQueue queue;
+
+	@Autowired
+	private AiJobRepository jobRepo;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void clear() {
+		jobRepo.deleteAll();
+	}
+
+	@Test
+	void concurrentClaimsTakeDisjointRows() throws Exception {
+		Set<String> all = new HashSet<>();
+		for (int i = 0; i < 4; i++) all.add(queue.enqueue(1L, "flashcards", Map.of("topic", "t" + i)).getId());
+		CountDownLatch firstClaimed = new CountDownLatch(1);
+		CountDownLatch secondClaimed = new CountDownLatch(1);
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+		ExecutorService threads = Executors.newFixedThreadPool(2);
+		try {
+			// the first claim keeps its transaction (and its row locks) open until the second one has returned,
+			// so the second claim must skip the locked rows rather than wait for them
+			Future<List<AiJob>> first = threads.submit(() -> tx.execute(status -> {
+				List<AiJob> jobs = queue.claim("node-a", 2);
+				firstClaimed.countDown();
+				await(secondClaimed);
+				return jobs;
+			}));
+			await(firstClaimed);
+			Future<List<AiJob>> second = threads.submit(() -> {
+				try {
+					return queue.claim("node-b", 4);
+				} finally {
+					secondClaimed.countDown();
+				}
+			});
+
+			Set<String> a = ids(first.get(10, TimeUnit.SECONDS));
+			Set<String> b = ids(second.get(10, TimeUnit.SECONDS));
+			// PostgreSQL hands node-b the two other rows; H2 locks every row it sorted for node-a, so node-b may
+			// get fewer. Either way no row is claimed twice, and the rest is claimable once node-a has committed
+			Set<String> c = ids(queue.claim("node-c", 4));
+			assertThat(a).hasSize(2);
+			Set<String> claimed = new HashSet<>(a);
+			claimed.addAll(b);
+			claimed.addAll(c);
+			assertThat(claimed).isEqualTo(all);
+			assertThat(a.size() + b.size() + c.size()).isEqualTo(all.size()); // pairwise disjoint
+		} finally {
+			threads.shutdownNow();
+		}
+	}
+
+	@Test
+	void expiredLeaseIsTakenOverAndOldOwnerCannotComplete() {
+		queue.enqueue(1L, "flashcards", Map.of("topic", "java"));
+		AiJob byA = queue.claim("node-a", 1).get(0);
+
+		assertThat(queue.claim("node-b", 1)).isEmpty(); // lease still valid
+		expireLease(byA.getId());
+		AiJob byB = queue.claim("node-b", 1).get(0);
+		assertThat(byB.getId()).isEqualTo(byA.getId());
+		assertThat(byB.getAttempts()).isEqualTo(2);
+
+		AtomicBoolean storedByA = new AtomicBoolean();
+		assertThat(queue.complete(byA, () -> {
+			storedByA.set(true);
+			return Map.of("result", "a");
+		})).isFalse();
+		assertThat(storedByA).isFalse();
+
+		assertThat(queue.complete(byB, () -> Map.of("result", "b"))).isTrue();
+		AiJob done = jobRepo.findById(byB.getId()).orElseThrow();
+		assertThat(done.getStatus()).isEqualTo(AiJob.Status.SUCCEEDED);
+		assertThat(done.getResultJson()).isEqualTo("{\"result\":\"b\"}");
+	}
+
+	@Test
+	void failBacksOffThenDeadLetters() {
+		AiJob job = queue.enqueue(1L, "flashcards", Map.of("topic", "java"));
+
+		AiJob first = queue.claim("node-a", 1).get(0);
+		Instant failedAt = Instant.now();
+		RuntimeException reset = new RuntimeException("Gemini call failed: reset", new IOException("Connection reset"));
+		assertThat(queue.fail(first, reset)).contains(AiJob.Status.QUEUED);
+		AiJob queued = jobRepo.findById(job.getId()).orElseThrow();
+		// base delay 10 s for the first retry
+		assertThat(Duration.between(failedAt, queued.getRunAfter()).toSeconds()).isBetween(9L, 11L);
+		assertThat(queued.getLastError()).isEqualTo("Gemini call failed: reset");
+		assertThat(queued.getErrorCode()).isEqualTo(AiJobQueue.ERROR_UPSTREAM);
+		assertThat(queue.claim("node-a", 1)).isEmpty(); // not due yet
+
+		makeDue(job.getId());
+		AiJob second = queue.claim("node-a", 1).get(0);
+		assertThat(queue.fail(second, new AiUnavailableException("busy", 30))).contains(AiJob.Status.FAILED);
+		AiJob dead = jobRepo.findById(job.getId()).orElseThrow();
+		assertThat(dead.getStatus()).isEqualTo(AiJob.Status.FAILED);
+		assertThat(dead.getFinishedAt()).isNotNull();
+		assertThat(dead.getRetryAfter()).isEqualTo(30L);
+		assertThat(dead.getErrorCode()).isEqualTo(AiJobQueue.ERROR_AI_UNAVAILABLE);
+		assertThat(queue.fail(second, new RuntimeException("again"))).isEmpty(); // no longer claimed
+	}
+
+	@Test
+	void errorThatWouldRecurIsNotRetried() {
+		AiJob job = queue.enqueue(1L, "mock-interview", Map.of("rounds", "five"));
+		AiJob claimed = queue.claim("node-a", 1).get(0);
+
+		assertThat(queue.fail(claimed, new NumberFormatException("For input string: \"five\""))).contains(AiJob.Status.FAILED);
+
+		AiJob dead = jobRepo.findById(job.getId()).orElseThrow();
+		assertThat(dead.getAttempts()).isEqualTo(1);
+		assertThat(dead.getFinishedAt()).isNotNull();
+		assertThat(dead.getErrorCode()).isEqualTo(AiJobQueue.ERROR_INVALID_PARAMS);
+	}
+
+	@Test
+	void retryWaitsAtLeastRetryAfter() {
+		AiJob job = queue.enqueue(1L, "flashcards", Map.of("topic", "java"));
+		AiJob claimed = queue.claim("node-a", 1).get(0);
+		Instant failedAt = Instant.now();
+
+		queue.fail(claimed, new AiUnavailableException("busy", 60));
+
+		AiJob queued = jobRepo.findById(job.getId()).orElseThrow();
+		assertThat(Duration.between(failedAt, queued.getRunAfter()).toSeconds()).isBetween(59L, 61L);
+	}
+
+	@Test
+	void jobWhoseLastAttemptNeverReturnedIsDeadLettered() {
+		AiJob job = queue.enqueue(1L, "flashcards", Map.of("topic", "java"));
+		queue.claim("node-a", 1);
+		expireLease(job.getId());
+		queue.claim("node-b", 1); // attempt 2 of 2
+		expireLease(job.getId());
+
+		assertThat(queue.claim("node-c", 1)).isEmpty();
+		AiJob dead = jobRepo.findById(job.getId()).orElseThrow();
+		assertThat(dead.getStatus()).isEqualTo(AiJob.Status.FAILED);
+		assertThat(dead.getAttempts()).isEqualTo(2);
+		assertThat(dead.getLastError()).contains("node-b");
+		assertThat(dead.getErrorCode()).isEqualTo(AiJobQueue.ERROR_WORKER_LOST);
+	}
+
+	private void expireLease(String jobId) {
+		AiJob job = jobRepo.findById(jobId).orElseThrow();
+		job.setLeaseUntil(Instant.now().minusSeconds(1));
+		jobRepo.save(job);
+	}
+
+	private void makeDue(String jobId) {
+		AiJob job = jobRepo.findById(jobId).orElseThrow();
+		job.setRunAfter(Instant.now().minusSeconds(1));
+		jobRepo.save(job);
+	}
+
+	private static Set<String> ids(List<AiJob> jobs) {
+		Set<String> ids = new HashSet<>();
+		for (AiJob job : jobs) ids.add(job.getId());
+		return ids;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			if (!latch.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("timed out");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
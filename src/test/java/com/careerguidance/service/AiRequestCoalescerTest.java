@@ -0,0 +1,132 @@
+package com.careerguidance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AiRequestCoalescerTest {
+
+	private final AiRequestCoalescer coalescer = new AiRequestCoalescer(true);
+	private final ExecutorService threads = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void stopThreads() {
+		threads.shutdownNow();
+	}
+
+	@Test
+	void followerSharesTheLeadersResult() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+
+		Future<JsonNode> leader = threads.submit(() -> coalescer.execute("k", blockingCall(calls, release, () -> reply("leader"))));
+		awaitInFlight();
+		Future<JsonNode> follower = threads.submit(() -> coalescer.execute("k", () -> reply("follower")));
+		awaitCoalesced();
+		release.countDown();
+
+		JsonNode fromLeader = leader.get(5, TimeUnit.SECONDS);
+		JsonNode fromFollower = follower.get(5, TimeUnit.SECONDS);
+		assertThat(fromLeader.path("from").asText()).isEqualTo("leader");
+		assertThat(fromFollower.path("from").asText()).isEqualTo("leader");
+		assertThat(fromFollower).isNotSameAs(fromLeader); // each caller gets its own copy
+		assertThat(calls).hasValue(1);
+		assertThat(coalescer.stats()).containsEntry("leaders", 1L).containsEntry("coalesced", 1L).containsEntry("inFlight", 0);
+	}
+
+	@Test
+	void followerSeesTheLeadersException() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<JsonNode> leader = threads.submit(() -> coalescer.execute("k", blockingCall(new AtomicInteger(), release, () -> {
+			throw new IllegalStateException("upstream failed");
+		})));
+		awaitInFlight();
+		Future<JsonNode> follower = threads.submit(() -> coalescer.execute("k", () -> reply("follower")));
+		awaitCoalesced();
+		release.countDown();
+
+		assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(IllegalStateException.class).hasRootCauseMessage("upstream failed");
+		assertThat(coalescer.stats()).containsEntry("inFlight", 0);
+	}
+
+	@Test
+	void errorInTheLeaderReleasesFollowers() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<JsonNode> leader = threads.submit(() -> coalescer.execute("k", blockingCall(new AtomicInteger(), release, () -> {
+			throw new StackOverflowError("deep prompt");
+		})));
+		awaitInFlight();
+		Future<JsonNode> follower = threads.submit(() -> coalescer.execute("k", () -> reply("follower")));
+		awaitCoalesced();
+		release.countDown();
+
+		assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+		assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+		// the key is free again, so the next caller leads a fresh call
+		assertThat(coalescer.execute("k", () -> reply("next")).path("from").asText()).isEqualTo("next");
+	}
+
+	@Test
+	void differentKeysAndDisabledCoalescingDoNotShare() {
+		assertThat(coalescer.execute("a", () -> reply("a")).path("from").asText()).isEqualTo("a");
+		assertThat(coalescer.execute("b", () -> reply("b")).path("from").asText()).isEqualTo("b");
+
+		AiRequestCoalescer disabled = new AiRequestCoalescer(false);
+		assertThat(disabled.execute("a", () -> reply("x")).path("from").asText()).isEqualTo("x");
+		assertThat(disabled.stats()).containsEntry("leaders", 0L);
+	}
+
+	private static Supplier<JsonNode> blockingCall(AtomicInteger calls, CountDownLatch release, Supplier<JsonNode> body) {
+		return () -> {
+			calls.incrementAndGet();
+			try {
+				if (!release.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("never released");
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+			return body.get();
+		};
+	}
+
+	private void awaitInFlight() throws InterruptedException {
+		waitFor(() -> (Integer) coalescer.stats().get("inFlight") == 1);
+	}
+
+	private void awaitCoalesced() throws InterruptedException {
+		waitFor(() -> (Long) coalescer.stats().get("coalesced") >= 1);
+	}
+
+	private static void waitFor(Callable<Boolean> condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		try {
+			while (!condition.call()) {
+				if (System.nanoTime() > deadline) throw new IllegalStateException("timed out");
+				Thread.sleep(5);
+			}
+		} catch (InterruptedException | IllegalStateException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static JsonNode reply(String from) {
+		ObjectNode node = JsonNodeFactory.instance.objectNode();
+		node.put("from", from);
+		return node;
+	}
+}
@@ -0,0 +1,80 @@
+package com.careerguidance.service;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AiResponseCacheTest {
+
+	// explain is kept for a minute, resources for one second, chat not at all (ai.cache.ttl.default=0)
+	private final MockEnvironment env = new MockEnvironment()
+			.withProperty("ai.cache.ttl.explain", "60")
+			.withProperty("ai.cache.ttl.resources", "1");
+
+	@Test
+	void ttlIsPerOperation() throws Exception {
+		AiResponseCache cache = new AiResponseCache(env, true, 10, 0);
+
+		assertThat(cache.isCacheable("explain")).isTrue();
+		assertThat(cache.isCacheable("chat")).isFalse();
+
+		cache.put("explain", "a", reply("kept"));
+		cache.put("resources", "b", reply("expires"));
+		Thread.sleep(1100);
+
+		assertThat(cache.get("a")).isEqualTo(reply("kept"));
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.stats()).containsEntry("expirations", 1L).containsEntry("size", 1);
+	}
+
+	@Test
+	void disabledCacheStoresNothing() {
+		AiResponseCache cache = new AiResponseCache(env, false, 10, 60);
+
+		assertThat(cache.isCacheable("explain")).isFalse();
+		assertThat(cache.isCacheable("chat")).isFalse();
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedEntry() {
+		AiResponseCache cache = new AiResponseCache(env, true, 2, 0);
+		cache.put("explain", "a", reply("a"));
+		cache.put("explain", "b", reply("b"));
+
+		cache.get("a"); // b is now the least recently used
+		cache.put("explain", "c", reply("c"));
+
+		assertThat(cache.get("a")).isNotNull();
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.get("c")).isNotNull();
+		assertThat(cache.stats()).containsEntry("evictions", 1L).containsEntry("size", 2);
+	}
+
+	@Test
+	void callersNeverShareTheCachedNode() {
+		AiResponseCache cache = new AiResponseCache(env, true, 10, 0);
+		ObjectNode stored = reply("original");
+		cache.put("explain", "a", stored);
+
+		stored.put("text", "changed after put");
+		((ObjectNode) cache.get("a")).put("text", "changed after get");
+
+		assertThat(cache.get("a")).isEqualTo(reply("original"));
+	}
+
+	@Test
+	void keyIgnoresWhitespaceButNotModelOrMode() {
+		String key = AiResponseCache.key("gemini", true, "Explain  Java\n streams ");
+
+		assertThat(AiResponseCache.key("gemini", true, "Explain Java streams")).isEqualTo(key);
+		assertThat(AiResponseCache.key("gemini", false, "Explain Java streams")).isNotEqualTo(key);
+		assertThat(AiResponseCache.key("other", true, "Explain Java streams")).isNotEqualTo(key);
+	}
+
+	private static ObjectNode reply(String text) {
+		return JsonNodeFactory.instance.objectNode().put("text", text);
+	}
+}
@@ -0,0 +1,147 @@
+package com.careerguidance.service;
+
+import com.careerguidance.dto.AssessmentSubmission;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AssessmentGraderTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final AssessmentGrader grader = new AssessmentGrader();
+
+	private final JsonNode key = read("""
+			[
+			  {"question": "What is a JVM?", "options": {"A": "A database", "B": "Virtual machine", "C": "A compiler", "D": "An IDE"}, "answer": "B"},
+			  {"question": "Which keyword declares a constant?", "options": {"A": "static", "B": "const", "C": "final", "D": "var"}, "answer": "C) final"},
+			  {"question": "What does GC stand for?", "options": {"A": "Garbage collection", "B": "Global cache", "C": "Green code", "D": "Git commit"}, "answer": "Garbage collection"}
+			]""");
+
+	@Test
+	void acceptsLettersInAnyForm() {
+		JsonNode result = grader.grade(key, grader.parseSubmission("[\"b\", \"C) final\", \"A. Garbage collection\"]"));
+
+		assertThat(result.path("score").asInt()).isEqualTo(3);
+		assertThat(result.path("outOf").asInt()).isEqualTo(3);
+		assertThat(result.path("percentage").asDouble()).isEqualTo(100.0);
+	}
+
+	@Test
+	void matchesOptionText() {
+		JsonNode result = grader.grade(key, grader.parseSubmission("[\"  virtual   MACHINE \", \"static\", \"garbage collection\"]"));
+
+		assertThat(result.path("score").asInt()).isEqualTo(2);
+		assertThat(result.path("evaluation").get(1).path("isCorrect").asBoolean()).isFalse();
+		assertThat(result.path("evaluation").get(1).path("correctAnswer").asText()).isEqualTo("C");
+		assertThat(result.path("evaluation").get(1).path("userAnswer").asText()).isEqualTo("static");
+	}
+
+	@Test
+	void matchesAnswersByQuestionTextBeforePosition() {
+		String submission = """
+				[
+				  {"question": "what does gc  stand for?", "userAnswer": "A"},
+				  {"question": "What is a JVM?", "answer": "B"},
+				  {"question": "Something the key doesn't have", "selected": "C"}
+				]""";
+
+		JsonNode result = grader.grade(key, grader.parseSubmission(submission));
+
+		// first two by question text; the unknown question's position (2) is the GC question, already answered, so it is skipped
+		JsonNode evaluation = result.path("evaluation");
+		assertThat(evaluation.get(0).path("isCorrect").asBoolean()).isTrue();
+		assertThat(evaluation.get(1).path("userAnswer").isNull()).isTrue();
+		assertThat(evaluation.get(2).path("userAnswer").asText()).isEqualTo("A");
+		assertThat(result.path("score").asInt()).isEqualTo(2);
+	}
+
+	@Test
+	void eachQuestionIsAnsweredOnce() {
+		String submission = """
+				[
+				  {"userAnswer": "D"},
+				  {"question": "What is a JVM?", "userAnswer": "B"},
+				  {"question": "What is a JVM?", "userAnswer": "A"},
+				  {"userAnswer": "C"}
+				]""";
+
+		JsonNode evaluation = grader.grade(key, grader.parseSubmission(submission)).path("evaluation");
+
+		// the named answer keeps question 1 against both the positional "D" before it and the repeat after it
+		assertThat(evaluation.get(0).path("userAnswer").asText()).isEqualTo("B");
+		assertThat(evaluation.get(1).path("userAnswer").isNull()).isTrue();
+		assertThat(evaluation.get(2).path("userAnswer").isNull()).isTrue();
+	}
+
+	@Test
+	void optionTextsThatStartLikeALetterAreTexts() {
+		JsonNode tricky = read("""
+				[
+				  {"question": "q1", "options": {"A": "B-tree", "B": "A stack", "C": "Hash map", "D": "C++"}, "answer": "A stack"},
+				  {"question": "q2", "options": {"A": "B-tree", "B": "A stack", "C": "Hash map", "D": "C++"}, "answer": "D"},
+				  {"question": "q3", "options": {"A": "B-tree", "B": "A stack", "C": "Hash map", "D": "D (none)"}, "answer": "B-tree"},
+				  {"question": "q4", "options": {"A": "B-tree", "B": "A stack", "C": "Hash map", "D": "D (none)"}, "answer": "D"}
+				]""");
+
+		JsonNode result = grader.grade(tricky, grader.parseSubmission("[\"a stack\", \"C++\", \"B-tree\", \"d (none)\"]"));
+
+		assertThat(result.path("score").asInt()).isEqualTo(4);
+		assertThat(result.path("evaluation").get(0).path("correctAnswer").asText()).isEqualTo("B");
+		assertThat(result.path("evaluation").get(2).path("correctAnswer").asText()).isEqualTo("A");
+
+		// letters still work when the text matches no option
+		result = grader.grade(tricky, grader.parseSubmission("[\"B\", \"d) C++\", \"a\", \"D.\"]"));
+		assertThat(result.path("score").asInt()).isEqualTo(4);
+		result = grader.grade(tricky, grader.parseSubmission("[\"A\", \"C\", \"B\", \"C\"]"));
+		assertThat(result.path("score").asInt()).isZero();
+	}
+
+	@Test
+	void missingAndExtraAnswersAreIgnored() {
+		JsonNode result = grader.grade(key, grader.parseSubmission("{\"answers\": [\"B\"]}"));
+		assertThat(result.path("score").asInt()).isEqualTo(1);
+		assertThat(result.path("outOf").asInt()).isEqualTo(3);
+
+		result = grader.grade(key, grader.parseSubmission("[\"B\", \"C\", \"A\", \"D\", \"D\"]"));
+		assertThat(result.path("score").asInt()).isEqualTo(3);
+		assertThat(result.path("evaluation").size()).isEqualTo(3);
+	}
+
+	@Test
+	void selfKeyedGradingUsesTheSubmittedKey() {
+		List<AssessmentSubmission.Answer> answers = grader.parseSubmission("""
+				[{"question": "q1", "userAnswer": "a", "correctAnswer": "A"},
+				 {"question": "q2", "userAnswer": "B) two", "correctAnswer": "C"}]""");
+
+		assertThat(AssessmentGrader.hasAnswerKey(answers)).isTrue();
+		assertThat(grader.gradeSelfKeyed(answers).path("score").asInt()).isEqualTo(1);
+		assertThat(AssessmentGrader.hasAnswerKey(grader.parseSubmission("[\"A\"]"))).isFalse();
+	}
+
+	@Test
+	void passMark() {
+		assertThat(AssessmentGrader.passed(7, 10)).isTrue();
+		assertThat(AssessmentGrader.passed(6, 10)).isFalse();
+		assertThat(AssessmentGrader.passed(4, 5)).isTrue();
+		assertThat(AssessmentGrader.passed(3, 5)).isFalse();
+		assertThat(AssessmentGrader.passed(0, 0)).isFalse();
+	}
+
+	@Test
+	void rejectsInvalidJson() {
+		assertThatThrownBy(() -> grader.parseSubmission("[not json")).hasMessageStartingWith("Invalid submission JSON");
+	}
+
+	private JsonNode read(String json) {
+		try {
+			return mapper.readTree(json);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.careerguidance.service;
+
+import com.careerguidance.model.ChatMessage;
+import com.careerguidance.model.ChatSession;
+import com.careerguidance.repository.ChatMessageRepository;
+import com.careerguidance.repository.ChatSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// repositories are backed by an in-memory list that mimics the keyset queries
+class ChatContextBuilderTest {
+
+	private static final long SESSION = 1L;
+	private static final Instant T0 = Instant.parse("2026-03-15T10:00:00Z");
+
+	private final ChatSessionRepository sessionRepo = mock(ChatSessionRepository.class);
+	private final ChatMessageRepository messageRepo = mock(ChatMessageRepository.class);
+	private final AiService ai = mock(AiService.class);
+	private final List<ChatMessage> messages = new ArrayList<>();
+	private final List<Integer> foldSizes = new ArrayList<>();
+	private final ChatSession session = new ChatSession();
+	private ChatContextBuilder builder;
+
+	@BeforeEach
+	void setUp() {
+		session.setId(SESSION);
+		builder = new ChatContextBuilder(sessionRepo, messageRepo, ai,
+				new TaskExecutorAdapter(new SyncTaskExecutor()), mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(builder, "maxTokens", 100);
+		ReflectionTestUtils.setField(builder, "targetTokens", 50);
+		ReflectionTestUtils.setField(builder, "maxMessages", 60);
+		ReflectionTestUtils.setField(builder, "foldBatch", 4);
+		ReflectionTestUtils.setField(builder, "summaryMaxWords", 300);
+
+		when(sessionRepo.findById(SESSION)).thenReturn(Optional.of(session));
+		when(sessionRepo.findForUpdate(SESSION)).thenReturn(Optional.of(session));
+		when(messageRepo.findRecentAfter(eq(SESSION), any(), anyLong(), any())).thenAnswer(inv ->
+				after(inv.getArgument(1), inv.getArgument(2), inv.getArgument(3), true));
+		when(messageRepo.findOldestAfter(eq(SESSION), any(), anyLong(), any())).thenAnswer(inv ->
+				after(inv.getArgument(1), inv.getArgument(2), inv.getArgument(3), false));
+		when(ai.summarizeConversation(any(), anyList(), anyInt())).thenAnswer(inv -> {
+			List<?> folded = inv.getArgument(1);
+			foldSizes.add(folded.size());
+			return "summary " + foldSizes.size();
+		});
+	}
+
+	@Test
+	void buildKeepsTheNewestMessagesThatFitTheBudget() {
+		addMessages(12);
+		session.setSummary("earlier");
+
+		ChatContextBuilder.ChatContext context = builder.build(session);
+
+		// 7 x 13 = 91 tokens fit into 100, an 8th would not
+		assertThat(context.summary()).isEqualTo("earlier");
+		assertThat(context.messages()).hasSize(7);
+		assertThat(context.messages().get(0)).containsEntry("content", text(6));
+		assertThat(context.messages().get(6)).containsEntry("content", text(12));
+	}
+
+	@Test
+	void buildStartsAfterTheSummarizedMessagesAndAlwaysKeepsTheNewest() {
+		addMessages(3);
+		ChatMessage huge = add("x".repeat(1000));
+		session.setSummarizedThroughAt(messages.get(1).getCreatedAt());
+		session.setSummarizedThroughId(messages.get(1).getId());
+
+		List<Map<String, String>> context = builder.build(session).messages();
+
+		// only the newest message although it alone is over budget; messages 1-2 are in the summary
+		assertThat(context).hasSize(1);
+		assertThat(context.get(0)).containsEntry("content", huge.getContent());
+	}
+
+	@Test
+	void compactionFoldsOldestBatchesUntilTheTailFitsTheTarget() {
+		addMessages(12);
+
+		builder.compactAsync(SESSION);
+
+		// 12 x 13 = 156 > 100: keep 3 (39 <= 50), fold 1-4; then 8 x 13 = 104 > 100: fold 5-8; then 52 fits
+		assertThat(foldSizes).containsExactly(4, 4);
+		verify(ai).summarizeConversation(isNull(), anyList(), eq(300));
+		verify(ai).summarizeConversation(eq("summary 1"), anyList(), eq(300));
+		assertThat(session.getSummary()).isEqualTo("summary 2");
+		assertThat(session.getSummarizedThroughId()).isEqualTo(8L);
+		assertThat(session.getSummarizedThroughAt()).isEqualTo(messages.get(7).getCreatedAt());
+		assertThat(builder.build(session).messages()).hasSize(4);
+	}
+
+	@Test
+	void compactionDoesNothingWithinBudget() {
+		addMessages(7);
+
+		builder.compactAsync(SESSION);
+
+		verifyNoInteractions(ai);
+		assertThat(session.getSummarizedThroughId()).isNull();
+	}
+
+	@Test
+	void compactionDropsItsFoldWhenAnotherNodeMovedTheHighWaterMark() {
+		addMessages(12);
+		ChatSession movedElsewhere = new ChatSession();
+		movedElsewhere.setId(SESSION);
+		movedElsewhere.setSummarizedThroughId(6L);
+		when(sessionRepo.findForUpdate(SESSION)).thenReturn(Optional.of(movedElsewhere));
+
+		builder.compactAsync(SESSION);
+
+		assertThat(foldSizes).containsExactly(4);
+		assertThat(movedElsewhere.getSummary()).isNull();
+		assertThat(movedElsewhere.getSummarizedThroughId()).isEqualTo(6L);
+	}
+
+	@Test
+	void tokenEstimate() {
+		assertThat(ChatContextBuilder.estimateTokens(null)).isEqualTo(4);
+		assertThat(ChatContextBuilder.estimateTokens("")).isEqualTo(4);
+		assertThat(ChatContextBuilder.estimateTokens(text(1))).isEqualTo(13);
+	}
+
+	private void addMessages(int count) {
+		for (int i = 0; i < count; i++) add(text(messages.size() + 1));
+	}
+
+	private ChatMessage add(String content) {
+		ChatMessage m = new ChatMessage();
+		m.setId((long) messages.size() + 1);
+		m.setRole(m.getId() % 2 == 1 ? "user" : "assistant");
+		m.setContent(content);
+		m.setCreatedAt(T0.plusSeconds(m.getId()));
+		messages.add(m);
+		return m;
+	}
+
+	// 36 chars = 13 estimated tokens per message
+	private static String text(int n) {
+		return String.format("%-36s", "message " + n);
+	}
+
+	private List<ChatMessage> after(Instant at, long id, Limit limit, boolean newestFirst) {
+		List<ChatMessage> out = new ArrayList<>();
+		for (ChatMessage m : messages) {
+			int c = m.getCreatedAt().compareTo(at);
+			if (c > 0 || (c == 0 && m.getId() > id)) out.add(m);
+		}
+		if (newestFirst) Collections.reverse(out);
+		return out.subList(0, Math.min(out.size(), limit.max()));
+	}
+}
@@ -0,0 +1,129 @@
+package com.careerguidance.service;
+
+import com.careerguidance.config.GeminiHttpClientConfig;
+import com.careerguidance.config.OutboundHttpMonitor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+// GeminiClient over the production HTTP client setup (GeminiHttpClientConfig) against a local stub server
+class GeminiClientTest {
+
+	private static final String REPLY = "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"{\\\"ok\\\":true}\"}]}}]}";
+
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+	private HttpServer server;
+	private volatile int status;
+	private volatile long delayMs;
+
+	@BeforeEach
+	void startStub() throws IOException {
+		status = 200;
+		delayMs = 0;
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.createContext("/", this::answer);
+		server.start();
+	}
+
+	@AfterEach
+	void stopStub() {
+		server.stop(0);
+	}
+
+	@Test
+	void readsTheReplyEnvelope() {
+		GeminiClient client = client(baseUrl(), 2000);
+
+		assertThat(client.generate("explain", "prompt", true).path("ok").asBoolean()).isTrue();
+		assertThat(registry.get("ai.upstream.requests").tag("status", "200").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void slowUpstreamHitsTheReadTimeoutAndCountsAsOverload() {
+		delayMs = 3000;
+		GeminiClient client = client(baseUrl(), 300);
+
+		long start = System.nanoTime();
+		Throwable e = catchThrowable(() -> client.generate("explain", "prompt", true));
+
+		assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(2000);
+		assertThat(GeminiClient.isOverload(e)).isTrue();
+		assertThat(GeminiClient.isCancelled(e)).isFalse();
+		assertThat(registry.get("ai.upstream.requests").tag("status", "IO_ERROR").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void throttlingAndServerErrorsAreOverloadButClientErrorsAreNot() {
+		GeminiClient client = client(baseUrl(), 2000);
+
+		for (int code : new int[]{429, 500, 503}) {
+			status = code;
+			assertThat(GeminiClient.isOverload(catchThrowable(() -> client.generate("explain", "prompt", true))))
+					.as("status %d", code).isTrue();
+		}
+		for (int code : new int[]{400, 403, 404}) {
+			status = code;
+			assertThat(GeminiClient.isOverload(catchThrowable(() -> client.generate("explain", "prompt", true))))
+					.as("status %d", code).isFalse();
+		}
+	}
+
+	@Test
+	void unreachableUpstreamCountsAsOverload() throws IOException {
+		int closedPort;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			closedPort = socket.getLocalPort();
+		}
+		GeminiClient client = client("http://127.0.0.1:" + closedPort, 2000);
+
+		assertThat(GeminiClient.isOverload(catchThrowable(() -> client.generate("explain", "prompt", true)))).isTrue();
+	}
+
+	private GeminiClient client(String baseUrl, long readTimeoutMs) {
+		GeminiHttpClientConfig config = new GeminiHttpClientConfig();
+		HttpClient http = config.geminiHttpClient(500, true);
+		RestTemplate rest = config.geminiRestTemplate(http, new OutboundHttpMonitor(100, 1000, registry), readTimeoutMs);
+		GeminiClient client = new GeminiClient(rest, new AiMetrics(registry));
+		ReflectionTestUtils.setField(client, "baseUrl", baseUrl);
+		ReflectionTestUtils.setField(client, "model", "test-model");
+		ReflectionTestUtils.setField(client, "apiKey", "key");
+		return client;
+	}
+
+	private String baseUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	private void answer(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			exchange.getRequestBody().readAllBytes();
+			if (delayMs > 0) Thread.sleep(delayMs);
+			byte[] body = (status == 200 ? REPLY : "{\"error\":{\"code\":" + status + "}}").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.careerguidance.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarkdownRendererTest {
+
+	private final MarkdownRenderer markdown = new MarkdownRenderer(new SimpleMeterRegistry());
+
+	@Test
+	void emitsEachBlockOnceItsBlankLineArrives() {
+		MarkdownRenderer.Incremental stream = markdown.incremental();
+
+		assertThat(stream.append("# Ti")).isEmpty();
+		assertThat(stream.append("tle\n")).isEmpty();
+		assertThat(stream.append("\nFirst para")).isEqualTo("<h1>Title</h1>\n");
+		assertThat(stream.append("graph\n\n- a\n- b")).isEqualTo("<p>First paragraph</p>\n");
+		assertThat(stream.finish()).isEqualTo("<ul>\n<li>a</li>\n<li>b</li>\n</ul>\n");
+		assertThat(stream.finish()).isEmpty();
+	}
+
+	@Test
+	void blankLinesInsideAFenceDoNotSplitIt() {
+		MarkdownRenderer.Incremental stream = markdown.incremental();
+
+		assertThat(stream.append("```java\nint a = 1;\n\nint b = 2;\n")).isEmpty();
+		assertThat(stream.append("```\n\nafter")).isEqualTo(markdown.render("```java\nint a = 1;\n\nint b = 2;\n```\n"));
+		assertThat(stream.finish()).isEqualTo("<p>after</p>\n");
+	}
+
+	@Test
+	void leadingAndRepeatedBlankLinesAreNotBlocks() {
+		MarkdownRenderer.Incremental stream = markdown.incremental();
+
+		assertThat(stream.append("\n\n")).isEmpty();
+		assertThat(stream.append("one\n\n\n\ntwo")).isEqualTo("<p>one</p>\n");
+		assertThat(stream.finish()).isEqualTo("<p>two</p>\n");
+	}
+
+	@Test
+	void streamedOutputMatchesRenderingTheWholeReply() {
+		String reply = """
+				## Plan
+
+				1. Learn **Java**
+				2. Learn *Spring*
+
+				```
+				mvn test
+
+				mvn package
+				```
+
+				> Keep going.
+
+				Done.""";
+
+		for (int chunk : new int[]{1, 3, 7, 64}) {
+			MarkdownRenderer.Incremental stream = markdown.incremental();
+			StringBuilder html = new StringBuilder();
+			for (String delta : split(reply, chunk)) html.append(stream.append(delta));
+			html.append(stream.finish());
+			assertThat(html.toString()).as("chunk %d", chunk).isEqualTo(markdown.render(reply));
+		}
+	}
+
+	private static List<String> split(String s, int size) {
+		List<String> parts = new ArrayList<>();
+		for (int i = 0; i < s.length(); i += size) parts.add(s.substring(i, Math.min(s.length(), i + size)));
+		return parts;
+	}
+}
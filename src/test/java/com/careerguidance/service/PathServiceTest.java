@@ -0,0 +1,28 @@
+package com.careerguidance.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PathServiceTest {
+
+	@Test
+	void durationAcceptsWholeDaysAsNumbersOrText() {
+		assertThat(PathService.duration(3)).isEqualTo(3);
+		assertThat(PathService.duration(4L)).isEqualTo(4);
+		assertThat(PathService.duration(" 5 ")).isEqualTo(5);
+		assertThat(PathService.duration(0)).isZero();
+	}
+
+	@Test
+	void durationRejectsAnythingElseWithAMessage() {
+		assertThatThrownBy(() -> PathService.duration(null))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("duration is required");
+		for (Object bad : new Object[]{"three", 2.5, -1, true}) {
+			assertThatThrownBy(() -> PathService.duration(bad))
+					.isInstanceOf(IllegalArgumentException.class)
+					.hasMessage("duration must be a whole number of days, 0 or more");
+		}
+	}
+}
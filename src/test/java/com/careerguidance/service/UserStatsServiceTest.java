@@ -0,0 +1,180 @@
+package com.careerguidance.service;
+
+import com.careerguidance.model.LearningPath;
+import com.careerguidance.model.PathItem;
+import com.careerguidance.model.User;
+import com.careerguidance.model.UserStats;
+import com.careerguidance.repository.LearningPathRepository;
+import com.careerguidance.repository.UserRepository;
+import com.careerguidance.repository.UserStatsDayRepository;
+import com.careerguidance.repository.UserStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// user_stats is written with PostgreSQL SQL (insert ... on conflict); H2 in PostgreSQL mode stands in for the database
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:userstats;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=10000",
+		"spring.datasource.username=sa",
+		"spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PathService.class, UserStatsService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every service call commits on its own, as in production
+class UserStatsServiceTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2026, 3, 15);
+
+	@Autowired
+	private PathService pathService;
+
+	@Autowired
+	private UserStatsService statsService;
+
+	@Autowired
+	private UserStatsRepository statsRepo;
+
+	@Autowired
+	private UserStatsDayRepository dayRepo;
+
+	@Autowired
+	private LearningPathRepository pathRepo;
+
+	@Autowired
+	private UserRepository userRepo;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Long userId;
+
+	@BeforeEach
+	void setUp() {
+		dayRepo.deleteAll();
+		statsRepo.deleteAll();
+		pathRepo.deleteAll();
+		userRepo.deleteAll();
+		User user = new User();
+		user.setEmail("stats@example.com");
+		user.setPassword("x");
+		userId = userRepo.save(user).getId();
+	}
+
+	@Test
+	void deltasOfEditsMatchRebuild() {
+		LearningPath lp = pathService.createPath(userId, "Backend", List.of(
+				Map.of("topic", "Java", "duration", 3),
+				Map.of("topic", "SQL", "duration", 2),
+				Map.of("topic", "Docker", "duration", 4)));
+		List<PathItem> created = lp.getPath();
+		LearningPath updated = pathService.updatePath(lp.getId(), userId, List.of(
+				item(created.get(0).getId(), "Java", "completed", "2026-03-14"),
+				item(created.get(1).getId(), "SQL", "pending", "2026-03-15"),
+				item(null, "Spring", "pending", "2026-03-01"),   // Docker removed
+				item(null, "Git", "completed", "2026-03-13"),
+				item(null, "Kubernetes", "pending", "2026-01-10")));
+		pathService.patchItem(lp.getId(), userId, updated.getPath().get(1).getId(), Map.of("status", "completed"));
+		pathService.patchItem(lp.getId(), userId, updated.getPath().get(2).getId(), Map.of("endDate", "2026-03-12"));
+
+		Map<String, Object> incremental = view();
+		List<String> incrementalDays = dayRows();
+
+		UserStats legacy = statsRepo.findById(userId).orElseThrow();
+		legacy.setOpenItems(null); // forces a rebuild from the paths on the next read
+		statsRepo.save(legacy);
+		pathService.computeUserStats(userId);
+
+		assertThat(dayRows()).isEqualTo(incrementalDays);
+		assertThat(view()).isEqualTo(incremental);
+		assertThat(incremental)
+				.containsEntry("total", 5)
+				.containsEntry("completed", 3)
+				.containsEntry("pending", 0)
+				.containsEntry("overdue", 2)
+				.containsEntry("overdueBuckets", Map.of("upTo7Days", 1, "upTo30Days", 0, "older", 1))
+				.containsEntry("streak", 3);
+	}
+
+	@Test
+	void removingEveryItemLeavesNoDayRows() {
+		LearningPath lp = pathService.createPath(userId, "Backend", List.of(
+				Map.of("topic", "Java", "duration", 3),
+				Map.of("topic", "SQL", "duration", 2)));
+
+		pathService.updatePath(lp.getId(), userId, List.of());
+
+		assertThat(dayRows()).isEmpty();
+		assertThat(view()).containsEntry("total", 0).containsEntry("pending", 0).containsEntry("streak", 0);
+	}
+
+	@Test
+	void changeBasedOnAStaleReadIsRejectedAndNotCounted() throws Exception {
+		LearningPath lp = pathService.createPath(userId, "Backend", List.of(
+				Map.of("topic", "Java", "duration", 3),
+				Map.of("topic", "SQL", "duration", 2)));
+		Long itemId = lp.getPath().get(0).getId();
+		CountDownLatch loaded = new CountDownLatch(1);
+		CountDownLatch changed = new CountDownLatch(1);
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+		// like an assessment submission: load the path, edit it in place, save it
+		Future<?> stale = Executors.newSingleThreadExecutor().submit(() -> tx.executeWithoutResult(status -> {
+			LearningPath path = pathService.getByIdForUser(lp.getId(), userId);
+			loaded.countDown();
+			await(changed);
+			path.getPath().get(0).setStatus("completed");
+			pathService.updatePath(path.getId(), userId, path.getPath());
+		}));
+		assertThat(loaded.await(10, TimeUnit.SECONDS)).isTrue();
+		pathService.patchItem(lp.getId(), userId, itemId, Map.of("status", "completed"));
+		changed.countDown();
+
+		assertThatThrownBy(() -> stale.get(10, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(OptimisticLockingFailureException.class);
+		assertThat(view()).containsEntry("total", 2).containsEntry("completed", 1);
+	}
+
+	private Map<String, Object> view() {
+		return statsService.view(statsRepo.findById(userId).orElseThrow(), TODAY);
+	}
+
+	private List<String> dayRows() {
+		List<String> rows = new ArrayList<>();
+		dayRepo.findAll().forEach(d -> rows.add(d.getEndDate() + " open=" + d.getOpenItems() + " completed=" + d.getCompletedItems()));
+		Collections.sort(rows);
+		return rows;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			if (!latch.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("timed out");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static PathItem item(Long id, String topic, String status, String endDate) {
+		PathItem it = new PathItem();
+		it.setId(id);
+		it.setTopic(topic);
+		it.setStatus(status);
+		it.setEndDate(endDate);
+		return it;
+	}
+}